@@ -0,0 +1,76 @@
+package bank;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Authentication cost: password hashing before and after the thread-local digest and table hex encoder,
+ * a full login (lookup plus hash) and a session token lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthBenchmark {
+    private static final int ACCOUNTS = 1000;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private Bank bank;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        bank = new Bank(new FileStorage(BankDataGenerator.cached(ACCOUNTS, ACCOUNTS), "csv"));
+        bank.bootstrap();
+        tokens = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) tokens[i] = bank.openSession("user" + i, "password" + i).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { bank.close(); }
+
+    /** Crypto.sha256 as it was: a new MessageDigest per call and String.format per byte. */
+    @Benchmark
+    public String legacySha256() {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(PASSWORD.getBytes());
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) { throw new RuntimeException("SHA-256 not available"); }
+    }
+
+    @Benchmark
+    public String sha256() { return Crypto.sha256(PASSWORD); }
+
+    @Benchmark
+    public Optional<Account> login() {
+        int i = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+        return bank.login("user" + i, "password" + i);
+    }
+
+    @Benchmark
+    public Optional<Account> resumeSession() {
+        return bank.resumeSession(tokens[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+    }
+}
@@ -0,0 +1,144 @@
+package bank;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes a synthetic bank_data directory: a fixed-width accounts.csv and a transactions.csv whose running
+ * balances end at each account's stored balance, so the data also passes the application's own checks.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar bank.BankDataGenerator <dir> <accounts> <transactions> [seed]
+ *
+ * Activity is skewed the way real books are: a fifth of the accounts receive four fifths of the rows.
+ * Account i has username user{i} and password password{i}.
+ */
+public final class BankDataGenerator {
+    private static final String MARKER = "generated.properties";
+    private static final String[] FIRST = {"Aarav", "Diya", "Ishaan", "Kavya", "Rohan", "Ananya", "Vikram", "Meera", "Arjun", "Priya", "Kabir", "Sneha"};
+    private static final String[] LAST = {"Sharma", "Verma", "Iyer", "Nair", "Gupta", "Reddy", "Das", "Mehta", "Kumar", "Jha", "Singh", "Patel"};
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private BankDataGenerator() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: BankDataGenerator <dir> <accounts> <transactions> [seed]");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args[0]);
+        if (Files.exists(dir.resolve("accounts.csv"))) {
+            System.err.println("Refusing to overwrite " + dir.resolve("accounts.csv"));
+            System.exit(1);
+        }
+        long t = System.nanoTime();
+        generate(dir, Integer.parseInt(args[1]), Long.parseLong(args[2]), args.length > 3 ? Long.parseLong(args[3]) : 42);
+        System.out.printf("Wrote %s in %.1f s%n", dir, (System.nanoTime() - t) / 1e9);
+    }
+
+    /**
+     * A dataset shared by benchmark runs, generated on first use under the bench.data directory
+     * (default: bank-bench-data in the temp directory). Half-written datasets are regenerated.
+     */
+    static Path cached(int accounts, long transactions) throws IOException {
+        Path root = Paths.get(System.getProperty("bench.data", Paths.get(System.getProperty("java.io.tmpdir"), "bank-bench-data").toString()));
+        Path dir = root.resolve("a" + accounts + "-t" + transactions);
+        if (Files.exists(dir.resolve(MARKER))) return dir;
+        delete(dir);
+        generate(dir, accounts, transactions, 42);
+        return dir;
+    }
+
+    static void generate(Path dir, int accounts, long transactions, long seed) throws IOException {
+        Files.createDirectories(dir);
+        SplittableRandom rnd = new SplittableRandom(seed);
+        String[] accNo = new String[accounts];
+        long[] balance = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accNo[i] = Long.toString((202401L + i / 900_000) * 1_000_000L + 100_000 + i % 900_000);
+        }
+
+        CsvTxFormat csv = new CsvTxFormat(dir.resolve("transactions.csv"));
+        LocalDateTime now = START;
+        long rows = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(csv.file()), 1 << 16)) {
+            out.write(csv.header());
+            // Every account opens with a deposit, so balances stay well clear of zero for transfer benchmarks.
+            for (int i = 0; i < accounts && rows < transactions; i++, rows++) {
+                long amt = 100_000 + rnd.nextLong(5_000_000);
+                balance[i] = amt;
+                now = now.plusSeconds(1 + rnd.nextInt(30));
+                out.write(csv.encode(tx(rnd, now, accNo[i], TxType.DEPOSIT, amt, amt, "Opening Deposit", "")));
+            }
+            while (rows < transactions) {
+                int i = pick(rnd, accounts);
+                now = now.plusSeconds(1 + rnd.nextInt(30));
+                int kind = rnd.nextInt(100);
+                if (kind < 25 && rows + 1 < transactions && accounts > 1) {
+                    int j = pick(rnd, accounts);
+                    if (j == i) j = (i + 1) % accounts;
+                    long amt = Math.min(balance[i], 100 + rnd.nextLong(500_000));
+                    balance[i] -= amt;
+                    balance[j] += amt;
+                    out.write(csv.encode(tx(rnd, now, accNo[i], TxType.TRANSFER_OUT, amt, balance[i], "Transfer to " + accNo[j], accNo[j])));
+                    out.write(csv.encode(tx(rnd, now, accNo[j], TxType.TRANSFER_IN, amt, balance[j], "Transfer from " + accNo[i], accNo[i])));
+                    rows += 2;
+                } else if (kind < 55 && balance[i] > 0) {
+                    long amt = Math.min(balance[i], 100 + rnd.nextLong(1_000_000));
+                    balance[i] -= amt;
+                    out.write(csv.encode(tx(rnd, now, accNo[i], TxType.WITHDRAWAL, amt, balance[i], "Cash Withdrawal", "")));
+                    rows++;
+                } else if (kind < 60) {
+                    long days = 1 + rnd.nextInt(90);
+                    long amt = Bank.interestFor(balance[i], days);
+                    balance[i] += amt;
+                    out.write(csv.encode(tx(rnd, now, accNo[i], TxType.INTEREST, amt, balance[i], "Interest for " + days + " day(s)", "")));
+                    rows++;
+                } else {
+                    long amt = 100 + rnd.nextLong(2_000_000);
+                    balance[i] += amt;
+                    out.write(csv.encode(tx(rnd, now, accNo[i], TxType.DEPOSIT, amt, balance[i], "Cash/Online Deposit", "")));
+                    rows++;
+                }
+            }
+        }
+
+        List<Account> list = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            String name = FIRST[rnd.nextInt(FIRST.length)] + " " + LAST[rnd.nextInt(LAST.length)];
+            list.add(new Account(accNo[i], "user" + i, Crypto.sha256("password" + i), name, balance[i],
+                    now.toLocalDate(), START.toLocalDate().plusDays(rnd.nextInt(365))));
+        }
+        new FileStorage(dir, "csv").saveAccounts(list);
+        Files.write(dir.resolve(MARKER), ("accounts=" + accounts + "\ntransactions=" + rows + "\nseed=" + seed + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 80% of picks go to the first 20% of accounts. */
+    private static int pick(SplittableRandom rnd, int accounts) {
+        int hot = Math.max(1, accounts / 5);
+        return rnd.nextInt(100) < 80 ? rnd.nextInt(hot) : rnd.nextInt(accounts);
+    }
+
+    private static Transaction tx(SplittableRandom rnd, LocalDateTime ts, String acc, TxType type, long amt, long bal, String details, String related) {
+        return new Transaction(new UUID(rnd.nextLong(), rnd.nextLong()).toString(), ts, acc, type, amt, bal, details, related);
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
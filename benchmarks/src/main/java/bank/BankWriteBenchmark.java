@@ -0,0 +1,101 @@
+package bank;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Posting cost: lock, balance update and transaction log append (account records are checkpointed on close). Each trial
+ * works on a private copy of the generated data, since every call appends to it. The memory engine starts from the
+ * same data and shows what is left of each operation without I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankWriteBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int accounts;
+
+    @Param({"csv", "memory"})
+    public String engine;
+
+    private static final int BATCH = 64;
+
+    private Path dir;
+    private Bank bank;
+    private Account[] all;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path source = BankDataGenerator.cached(accounts, accounts);
+        dir = Files.createTempDirectory("bank-bench-write");
+        for (String f : new String[]{"accounts.csv", "transactions.csv"}) Files.copy(source.resolve(f), dir.resolve(f));
+        Storage storage = engine.equals("memory") ? new MemoryStorage(dir) : new FileStorage(dir, engine);
+        bank = new Bank(storage);
+        bank.bootstrap();
+        storage.openTransactionIndex();
+        all = bank.accounts().toArray(new Account[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        bank.close();
+        BankDataGenerator.delete(dir);
+    }
+
+    @Benchmark
+    public void deposit() {
+        bank.deposit(all[ThreadLocalRandom.current().nextInt(all.length)], 100);
+    }
+
+    /** A deposit repeated under an idempotency key already used: answered from the dedup cache without a lock or I/O. */
+    @Benchmark
+    public Transaction repeatedDeposit() {
+        return bank.deposit(all[0], 100, "repeated");
+    }
+
+    /** One paise between two distinct random accounts: balances drift by at most a few rupees over a run. */
+    @Benchmark
+    public void transfer() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        int from = r.nextInt(all.length), to = r.nextInt(all.length - 1);
+        if (to >= from) to++;
+        bank.transfer(all[from], all[to].getUsername(), 1);
+    }
+
+    /** {@link #BATCH} such transfers posted together: one stripe acquisition per account and one log append. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String[] transferBatch() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        List<Posting> postings = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            int from = r.nextInt(all.length), to = r.nextInt(all.length - 1);
+            if (to >= from) to++;
+            postings.add(Posting.transfer(all[from].getAccountNumber(), all[to].getAccountNumber(), 1));
+        }
+        return bank.postAll(postings);
+    }
+}
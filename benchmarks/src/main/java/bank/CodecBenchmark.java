@@ -0,0 +1,62 @@
+package bank;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-row costs independent of data size: CSV tokenizing (what CSV.split used to do), row encoding,
+ * money parsing and password hashing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private final CsvTxFormat csv = new CsvTxFormat(null);
+    private final Transaction tx = new Transaction("6f1c2b9e-3d4a-4c5b-8e7f-0a1b2c3d4e5f", LocalDateTime.of(2025, 11, 29, 17, 13, 14, 123_456_789),
+            "202511505840", TxType.TRANSFER_OUT, 250_050, 1_999_950, "Transfer to 202511782463", "202511782463");
+    private final byte[] row = csv.encode(tx);
+    private final byte[] quotedRow = ("6f1c2b9e-3d4a-4c5b-8e7f-0a1b2c3d4e5f,2025-11-29T17:13:14.123456789,202511505840,DEPOSIT,2500.50,19999.50,"
+            + "\"Rent, \"\"November\"\"\",").getBytes(StandardCharsets.UTF_8);
+    private final CsvTokenizer tok = new CsvTokenizer();
+
+    @Benchmark
+    public String tokenizeRow() {
+        CsvTokenizer r = tok.row(row, 0, row.length - 1);
+        return r.field(2);
+    }
+
+    @Benchmark
+    public String tokenizeQuotedRow() {
+        CsvTokenizer r = tok.row(quotedRow, 0, quotedRow.length);
+        return r.field(6);
+    }
+
+    @Benchmark
+    public long tokenizeAndParseRow() {
+        CsvTokenizer r = tok.row(row, 0, row.length - 1);
+        return r.fieldMoney(4) + r.fieldMoney(5) + r.fieldLong(2) + r.fieldDateTime(1).getNano();
+    }
+
+    @Benchmark
+    public byte[] encodeRow() { return csv.encode(tx); }
+
+    @Benchmark
+    public long moneyParse() { return Money.parse("1234567.89"); }
+
+    @Benchmark
+    public String sha256() { return Crypto.sha256("correct horse battery staple"); }
+}
@@ -0,0 +1,74 @@
+package bank;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Id generation: random UUID transaction ids and random account numbers as they were, against time-ordered 64-bit
+ * transaction ids and the block-allocated account sequence (one fsync per bank.ids.accountBlock numbers). The
+ * contended variants run on 4 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdBenchmark {
+    private Path dir;
+    private AccountSequence sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("bank-bench-ids");
+        sequence = new AccountSequence(dir.resolve("account_sequence"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException { BankDataGenerator.delete(dir); }
+
+    /** Ids.uuid as it was. */
+    @Benchmark
+    public String legacyTransactionId() { return UUID.randomUUID().toString(); }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyTransactionIdContended() { return UUID.randomUUID().toString(); }
+
+    @Benchmark
+    public String transactionId() { return Ids.newTransactionId(); }
+
+    @Benchmark
+    @Threads(4)
+    public String transactionIdContended() { return Ids.newTransactionId(); }
+
+    /** Ids.newAccountNumber as it was: a new Random per call and no collision check of its own. */
+    @Benchmark
+    public String legacyAccountNumber() {
+        String yyyymm = YearMonth.now().toString().replace("-", "");
+        int r = 100000 + new Random().nextInt(900000);
+        return yyyymm + r;
+    }
+
+    @Benchmark
+    public String accountNumber() { return sequence.next(); }
+}
@@ -0,0 +1,46 @@
+package bank;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cold-start work: parsing accounts.csv, and a full bootstrap into the Bank's maps. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StartupBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int accounts;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException { dir = BankDataGenerator.cached(accounts, accounts); }
+
+    @Benchmark
+    public List<Account> loadAccounts() { return new FileStorage(dir, "csv").loadAccounts(); }
+
+    @Benchmark
+    public Bank bootstrap() {
+        Bank bank = new Bank(new FileStorage(dir, "csv"));
+        bank.bootstrap();
+        return bank;
+    }
+}
@@ -0,0 +1,73 @@
+package bank;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Statement reads for a random account as the transaction log grows. Read-only, so all trials share the
+ * generated dataset (and its index, built once in the first trial's setup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementBenchmark {
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public long transactions;
+
+    private Storage storage;
+    private Bank bank;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storage = new FileStorage(BankDataGenerator.cached(accounts, transactions), "csv");
+        bank = new Bank(storage);
+        bank.bootstrap();
+        storage.openTransactionIndex();
+        accountNumbers = bank.accounts().stream().map(Account::getAccountNumber).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { bank.close(); }
+
+    private String randomAccount() { return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)]; }
+
+    @Benchmark
+    public List<Transaction> miniStatement() { return bank.getMiniStatement(randomAccount(), 5); }
+
+    @Benchmark
+    public List<Transaction> fullStatement() { return bank.getFullStatement(randomAccount()); }
+
+    @Benchmark
+    public List<Transaction> loadTransactionsFor() { return storage.loadTransactionsFor(randomAccount()); }
+
+    /** What the Statements table does to open a full statement: count the rows, then fetch the page in view. */
+    @Benchmark
+    public StatementPage openStatementTable() {
+        StatementQuery q = StatementQuery.all(randomAccount());
+        StatementOutline o = bank.outlineStatement(q, StatementTableModel.PAGE_SIZE);
+        return o.pages() == 0 ? null : bank.queryStatement(q, o.pageCursors[o.pages() - 1], o.pageSize);
+    }
+}
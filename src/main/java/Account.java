@@ -0,0 +1,39 @@
+import java.time.*;
+
+class Account {
+    private final String accountNumber;
+    private final String username;
+    private volatile String passwordHash;
+    private final String fullName;
+    private volatile long balance;  // paise; written only under the account's lock stripe in Bank
+    private volatile LocalDate lastInterestApplied;
+    private final LocalDate createdAt;
+
+    public Account(String accountNumber, String username, String passwordHash, String fullName, long balance, LocalDate lastInterestApplied) {
+        this(accountNumber, username, passwordHash, fullName, balance, lastInterestApplied, LocalDate.now());
+    }
+
+    public Account(String accountNumber, String username, String passwordHash, String fullName, long balance, LocalDate lastInterestApplied, LocalDate createdAt) {
+        this.accountNumber = accountNumber;
+        this.username = username;
+        this.passwordHash = passwordHash;
+        this.fullName = fullName;
+        this.balance = balance;
+        this.lastInterestApplied = lastInterestApplied == null ? LocalDate.now() : lastInterestApplied;
+        this.createdAt = createdAt == null ? LocalDate.now() : createdAt;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public String getUsername() { return username; }
+    public String getPasswordHash() { return passwordHash; }
+    public String getFullName() { return fullName; }
+    public long getBalance() { return balance; }
+    public LocalDate getLastInterestApplied() { return lastInterestApplied; }
+    public LocalDate getCreatedAt() { return createdAt; }
+
+    public void setPasswordHash(String hash) { this.passwordHash = hash; }
+    public void setBalance(long b) { this.balance = b; }
+    public void setLastInterestApplied(LocalDate d) { this.lastInterestApplied = d; }
+
+    Account copy() { return new Account(accountNumber, username, passwordHash, fullName, balance, lastInterestApplied, createdAt); }
+}
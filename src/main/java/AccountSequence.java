@@ -0,0 +1,51 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Account numbers: a sequence starting at {@link #FIRST}, each followed by a check digit, so they are 12 digits
+ * long and start with 1 (numbers from older versions start with the year). Numbers are reserved a block at a
+ * time (bank.ids.accountBlock, default 1000) by durably writing the block's end to the sequence file, so a crash
+ * skips the rest of a block rather than reissuing it. Without a file, the sequence starts over in every process.
+ */
+class AccountSequence {
+    static final long FIRST = 10_000_000_000L;
+
+    private final Path file;
+    private final int block;
+    private long next = -1; // read on first use
+    private long limit;     // end of the reserved block
+
+    AccountSequence(Path file) {
+        this.file = file;
+        this.block = Math.max(1, Integer.getInteger("bank.ids.accountBlock", 1000));
+    }
+
+    synchronized String next() {
+        try {
+            if (next < 0) next = limit = read();
+            if (next >= limit) reserve(next + block);
+            return Ids.withCheckDigit(next++);
+        } catch (IOException e) { throw new RuntimeException("Error allocating account number: "+e.getMessage()); }
+    }
+
+    private long read() throws IOException {
+        if (file == null || !Files.exists(file)) return FIRST;
+        String s = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        try { return Math.max(FIRST, Long.parseLong(s)); }
+        catch (NumberFormatException e) { throw new IOException("bad account sequence file " + file + ": " + s); }
+    }
+
+    private void reserve(long end) throws IOException {
+        if (file == null) { limit = end; return; }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap((end + "\n").getBytes(StandardCharsets.UTF_8)));
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        limit = end;
+    }
+}
@@ -0,0 +1,307 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless JSON API over {@link Bank}: {@code java BankAppGUI --serve [port]} (default 8080), on the loopback
+ * interface only. Endpoints and their bodies are listed in the README. Login returns a session token; every other
+ * endpoint takes "Authorization: Bearer <token>" (see {@link Sessions}) or HTTP Basic credentials. Deposits,
+ * withdrawals and transfers take an optional Idempotency-Key header.
+ *
+ * Errors come back as {"error":".."} with 400, 401, 404, 405 or 409 (refused). Handlers run on virtual threads
+ * when the JVM has them, else on bank.http.threads platform threads (default 256).
+ */
+class ApiServer {
+    private final Bank bank;
+    private final LongAdder served = new LongAdder();
+    private final AtomicLong window = new AtomicLong(System.nanoTime()); // start of the current one-second window
+    private final LongAdder windowCount = new LongAdder();
+    private volatile long lastRate;
+
+    ApiServer(Bank bank) { this.bank = bank; }
+
+    static void run(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        Bank bank = new Bank();
+        bank.bootstrap();
+        bank.startCheckpoints();
+        Metrics.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(bank::close, "bank-shutdown"));
+        HttpServer server = new ApiServer(bank).start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        System.out.println("Serving " + bank.accounts().size() + " accounts on http://" + server.getAddress().getHostString()
+                + ":" + server.getAddress().getPort() + "/api/");
+    }
+
+    HttpServer start(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, Integer.getInteger("bank.http.backlog", 4096));
+        server.createContext("/api/", this::handle);
+        server.setExecutor(handlerExecutor());
+        server.start();
+        return server;
+    }
+
+    /** Virtual thread per request where available; the build targets Java 11, hence the reflective lookup. */
+    private static ExecutorService handlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Integer.getInteger("bank.http.threads", 256);
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "bank-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            body = route(ex);
+        } catch (ApiError e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) { // bad JSON, amounts and numbers included
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.getResponseHeaders().set("X-Response-Time-Micros", Long.toString((System.nanoTime() - start) / 1000));
+        ex.getResponseHeaders().set("X-Requests-Per-Second", Long.toString(countRequest()));
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) { out.write(bytes); }
+    }
+
+    private String route(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String method = ex.getRequestMethod();
+        switch (path) {
+            case "/api/login": {
+                expect(method, "POST");
+                Map<String, String> in = Json.parseObject(readBody(ex));
+                String token = bank.openSession(in.getOrDefault("username", ""), in.getOrDefault("password", ""))
+                        .orElseThrow(() -> new ApiError(401, "Invalid credentials"));
+                Account acc = bank.resumeSession(token).orElseThrow(() -> new ApiError(401, "Session expired"));
+                StringBuilder sb = new StringBuilder(account(acc));
+                sb.setLength(sb.length() - 1);
+                return Json.field(sb.append(','), "token", token).append('}').toString();
+            }
+            case "/api/logout": {
+                expect(method, "POST");
+                String token = bearer(ex);
+                if (token == null) throw new ApiError(401, "Bearer token required");
+                bank.closeSession(token);
+                return "{}";
+            }
+            case "/api/balance":
+                expect(method, "GET");
+                return account(authenticate(ex));
+            case "/api/deposit": {
+                expect(method, "POST");
+                Account acc = authenticate(ex);
+                Transaction t = bank.deposit(acc, Money.parse(required(Json.parseObject(readBody(ex)), "amount")), idempotencyKey(ex));
+                return posted(acc, t);
+            }
+            case "/api/withdraw": {
+                expect(method, "POST");
+                Account acc = authenticate(ex);
+                Transaction t = bank.withdraw(acc, Money.parse(required(Json.parseObject(readBody(ex)), "amount")), idempotencyKey(ex));
+                return posted(acc, t);
+            }
+            case "/api/transfer": {
+                expect(method, "POST");
+                Account acc = authenticate(ex);
+                Map<String, String> in = Json.parseObject(readBody(ex));
+                Transaction t = bank.transfer(acc, required(in, "toUsername"), Money.parse(required(in, "amount")), idempotencyKey(ex));
+                return posted(acc, t);
+            }
+            case "/api/statement": {
+                expect(method, "GET");
+                Account acc = authenticate(ex);
+                URI uri = ex.getRequestURI();
+                String last = queryParam(uri, "last");
+                if (last != null) return statement(bank.getMiniStatement(acc.getAccountNumber(), Integer.parseInt(last)));
+                if (uri.getRawQuery() == null) return statement(bank.getFullStatement(acc.getAccountNumber()));
+                StatementPage page = bank.queryStatement(statementQuery(acc, uri), longParam(uri, "cursor", -1),
+                        (int) Math.min(1000, longParam(uri, "limit", 100)));
+                StringBuilder sb = new StringBuilder(statement(page.rows));
+                sb.setLength(sb.length() - 1);
+                return Json.field(sb.append(','), "next", page.hasMore() ? Long.toString(page.next) : null).append('}').toString();
+            }
+            case "/api/summary": {
+                expect(method, "GET");
+                Account acc = authenticate(ex);
+                URI uri = ex.getRequestURI();
+                LocalDate to, from;
+                try {
+                    String t = queryParam(uri, "to"), f = queryParam(uri, "from");
+                    to = t == null || t.isEmpty() ? LocalDate.now() : LocalDate.parse(t);
+                    from = f == null || f.isEmpty() ? to.minusDays(29) : LocalDate.parse(f);
+                } catch (DateTimeException e) { throw new IllegalArgumentException("Dates must be yyyy-MM-dd"); }
+                return summary(bank.getDailySummaries(acc.getAccountNumber(), from, to));
+            }
+            default:
+                throw new ApiError(404, "No such endpoint: " + path);
+        }
+    }
+
+    private Account authenticate(HttpExchange ex) {
+        String token = bearer(ex);
+        if (token != null) return bank.resumeSession(token).orElseThrow(() -> new ApiError(401, "Session expired or unknown"));
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        if (auth == null || !auth.regionMatches(true, 0, "Basic ", 0, 6)) throw new ApiError(401, "Bearer token or Basic credentials required");
+        String decoded;
+        try { decoded = new String(Base64.getDecoder().decode(auth.substring(6).trim()), StandardCharsets.UTF_8); }
+        catch (IllegalArgumentException e) { throw new ApiError(401, "Malformed credentials"); }
+        int colon = decoded.indexOf(':');
+        if (colon < 0) throw new ApiError(401, "Malformed credentials");
+        return bank.login(decoded.substring(0, colon), decoded.substring(colon + 1))
+                .orElseThrow(() -> new ApiError(401, "Invalid credentials"));
+    }
+
+    private static String idempotencyKey(HttpExchange ex) { return ex.getRequestHeaders().getFirst("Idempotency-Key"); }
+
+    private static String bearer(HttpExchange ex) {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        return auth != null && auth.regionMatches(true, 0, "Bearer ", 0, 7) ? auth.substring(7).trim() : null;
+    }
+
+    /** Completed requests in the last full one-second window. */
+    private long countRequest() {
+        served.increment();
+        windowCount.increment();
+        long now = System.nanoTime(), start = window.get();
+        if (now - start >= 1_000_000_000L && window.compareAndSet(start, now)) {
+            lastRate = Math.round(windowCount.sumThenReset() * 1e9 / (now - start));
+        }
+        return lastRate;
+    }
+
+    private static void expect(String method, String allowed) {
+        if (!method.equals(allowed)) throw new ApiError(405, "Use " + allowed);
+    }
+
+    private static String required(Map<String, String> in, String key) {
+        String v = in.get(key);
+        if (v == null || v.isEmpty()) throw new IllegalArgumentException("Missing " + key);
+        return v;
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) { return new String(in.readAllBytes(), StandardCharsets.UTF_8); }
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String q = uri.getRawQuery();
+        if (q == null) return null;
+        for (String pair : q.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static long longParam(URI uri, String name, long absent) {
+        String v = queryParam(uri, name);
+        return v == null || v.isEmpty() ? absent : Long.parseLong(v);
+    }
+
+    private static StatementQuery statementQuery(Account acc, URI uri) {
+        try {
+            String from = queryParam(uri, "from"), to = queryParam(uri, "to"), type = queryParam(uri, "type");
+            String min = queryParam(uri, "min"), max = queryParam(uri, "max");
+            Set<TxType> types = EnumSet.noneOf(TxType.class);
+            if (type != null && !type.isEmpty()) {
+                for (String t : type.split(",")) types.add(TxType.valueOf(t.trim().toUpperCase(Locale.ROOT)));
+            }
+            return new StatementQuery(acc.getAccountNumber(),
+                    from == null || from.isEmpty() ? null : LocalDate.parse(from),
+                    to == null || to.isEmpty() ? null : LocalDate.parse(to), types,
+                    min == null || min.isEmpty() ? 0 : Money.parse(min),
+                    max == null || max.isEmpty() ? Long.MAX_VALUE : Money.parse(max));
+        } catch (DateTimeException e) { throw new IllegalArgumentException("Dates must be yyyy-MM-dd"); }
+    }
+
+    private static String account(Account a) {
+        StringBuilder sb = new StringBuilder(160).append('{');
+        Json.field(sb, "accountNumber", a.getAccountNumber()).append(',');
+        Json.field(sb, "username", a.getUsername()).append(',');
+        Json.field(sb, "fullName", a.getFullName()).append(",\"balance\":");
+        return Money.append(sb, a.getBalance()).append('}').toString();
+    }
+
+    private static String posted(Account a, Transaction t) {
+        StringBuilder sb = new StringBuilder(account(a));
+        sb.setLength(sb.length() - 1);
+        return Json.field(sb.append(','), "transactionId", t.getId()).append('}').toString();
+    }
+
+    private static String statement(List<Transaction> txs) {
+        StringBuilder sb = new StringBuilder(64 + txs.size() * 200).append("{\"transactions\":[");
+        for (int i = 0; i < txs.size(); i++) {
+            Transaction t = txs.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('{');
+            Json.field(sb, "id", t.getId()).append(',');
+            Json.field(sb, "timestamp", t.getTimestamp().toString()).append(',');
+            Json.field(sb, "type", t.getType().name()).append(",\"amount\":");
+            Money.append(sb, t.getAmount()).append(",\"balanceAfter\":");
+            Money.append(sb, t.getBalanceAfter()).append(',');
+            Json.field(sb, "details", t.getDetails()).append(',');
+            Json.field(sb, "relatedAccount", t.getRelatedAccount()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String summary(List<DailySummary> days) {
+        StringBuilder sb = new StringBuilder(64 + days.size() * 200).append("{\"days\":[");
+        for (int i = 0; i < days.size(); i++) {
+            DailySummary d = days.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('{');
+            Json.field(sb, "date", d.day.toString()).append(",\"opening\":");
+            Money.append(sb, d.opening()).append(",\"closing\":");
+            Money.append(sb, d.closing).append(",\"inflow\":");
+            Money.append(sb, d.inflow()).append(",\"outflow\":");
+            Money.append(sb, d.outflow());
+            for (TxType t : TxType.values()) {
+                if (d.count(t) == 0) continue;
+                sb.append(",\"").append(t.name()).append("\":");
+                Money.append(sb, d.amount(t));
+            }
+            sb.append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return Json.field(new StringBuilder("{"), "error", message).append('}').toString();
+    }
+
+    /** An HTTP status with its message, thrown from a handler. */
+    static class ApiError extends RuntimeException {
+        final int status;
+        ApiError(int status, String message) { super(message); this.status = status; }
+    }
+}
@@ -0,0 +1,83 @@
+import javax.swing.*;
+
+import java.awt.CardLayout;
+import java.awt.Cursor;
+
+import java.lang.management.ManagementFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+class AppFrame extends JFrame {
+    private final CardLayout card = new CardLayout();
+    private final JPanel root = new JPanel(card);
+    private final Bank bank = new Bank();
+    private final AsyncBank async = new AsyncBank(bank);
+
+    private Account session; // currently logged in
+
+    public AppFrame() {
+        super("Online Banking System — Swing GUI");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(980, 650);
+        setLocationRelativeTo(null);
+
+        // Set Nimbus Look and Feel
+        try {
+            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
+                if ("Nimbus".equals(info.getName())) {
+                    UIManager.setLookAndFeel(info.getClassName());
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // If Nimbus is not available, use default
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(bank::close, "bank-shutdown"));
+
+        LoginPanel loginPanel = new LoginPanel(this, async);
+        RegisterPanel registerPanel = new RegisterPanel(this, async);
+        root.add(loginPanel, "login");
+        root.add(registerPanel, "register");
+
+        setContentPane(root);
+        showLogin();
+
+        // Load data in the background; the login form unlocks once accounts are in memory.
+        loginPanel.setBusy("Loading accounts…");
+        AsyncBank.onEdt(async.bootstrap(loginPanel::setProgress),
+                v -> {
+                    loginPanel.setReady("Ready");
+                    ForkJoinPool.commonPool().execute(Metrics::start); // off the EDT: the platform MBean server is slow to create
+                    // Time from JVM start to a usable login form, appended to bank_data/startup_times.csv.
+                    async.recordStartup(ManagementFactory.getRuntimeMXBean().getUptime());
+                },
+                ex -> {
+                    loginPanel.setBusy("Failed to load data");
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    void showLogin() { card.show(root, "login"); }
+    void showRegister() { card.show(root, "register"); }
+
+    void onLoginSuccess(Account acc) {
+        this.session = acc;
+        DashboardPanel dash = new DashboardPanel(this, async, session);
+        root.add(dash, "dashboard");
+        card.show(root, "dashboard");
+    }
+
+    void logout() {
+        session = null;
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        AsyncBank.onEdt(async.checkpoint(),
+                v -> { setCursor(Cursor.getDefaultCursor()); showLogin(); },
+                ex -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    showLogin();
+                });
+    }
+}
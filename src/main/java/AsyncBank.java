@@ -0,0 +1,81 @@
+import javax.swing.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over {@link Bank} for the UI. Every call runs on a dedicated worker pool and completes a
+ * {@link CompletableFuture}, so file I/O never blocks the Event Dispatch Thread. {@link Bank} is thread-safe, so
+ * independent calls (e.g. balance refresh and statement load) run in parallel.
+ */
+class AsyncBank {
+    private final Bank bank;
+    private final ExecutorService worker = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+        Thread t = new Thread(r, "bank-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    AsyncBank(Bank bank) { this.bank = bank; }
+
+    public CompletableFuture<Void> bootstrap() { return run(() -> { bank.bootstrap(); bank.startCheckpoints(); }); }
+
+    /** As {@link #bootstrap()}; {@code progress} runs on the EDT, with bursts of updates coalesced into one. */
+    public CompletableFuture<Void> bootstrap(DoubleConsumer progress) {
+        AtomicLong latest = new AtomicLong(-1); // bits of the newest fraction not yet shown; -1 when none is queued
+        return run(() -> {
+            bank.bootstrap(f -> {
+                if (latest.getAndSet(Double.doubleToLongBits(f)) == -1) {
+                    SwingUtilities.invokeLater(() -> progress.accept(Double.longBitsToDouble(latest.getAndSet(-1))));
+                }
+            });
+            bank.startCheckpoints();
+        });
+    }
+
+    public CompletableFuture<Void> recordStartup(long loginReadyMillis) { return run(() -> bank.recordStartup(loginReadyMillis)); }
+    public CompletableFuture<Void> checkpoint() { return run(bank::checkpoint); }
+    public CompletableFuture<String> transactionLogStats() { return supply(bank::transactionLogStats); }
+
+    public CompletableFuture<Account> createAccount(String username, String fullName, String password, long openingDeposit, String requestKey) {
+        return supply(() -> bank.createAccount(username, fullName, password, openingDeposit, requestKey));
+    }
+
+    public CompletableFuture<Optional<Account>> login(String username, String password) { return supply(() -> bank.login(username, password)); }
+    public CompletableFuture<Boolean> checkPassword(Account acc, String password) { return supply(() -> bank.checkPassword(acc, password)); }
+    public CompletableFuture<Void> changePassword(Account acc, String newPassword, String requestKey) { return run(() -> bank.changePassword(acc, newPassword, requestKey)); }
+    public CompletableFuture<Long> refreshBalance(Account acc) { return supply(() -> bank.refreshBalance(acc)); }
+    public CompletableFuture<Transaction> deposit(Account acc, long amount, String requestKey) { return supply(() -> bank.deposit(acc, amount, requestKey)); }
+    public CompletableFuture<Transaction> withdraw(Account acc, long amount, String requestKey) { return supply(() -> bank.withdraw(acc, amount, requestKey)); }
+    public CompletableFuture<Transaction> transfer(Account from, String toUsername, long amount, String requestKey) { return supply(() -> bank.transfer(from, toUsername, amount, requestKey)); }
+    public CompletableFuture<Long> applyInterest(Account acc, String requestKey) { return supply(() -> bank.applyInterest(acc, requestKey)); }
+    public CompletableFuture<List<Transaction>> getMiniStatement(String accountNumber, int lastN) { return supply(() -> bank.getMiniStatement(accountNumber, lastN)); }
+    public CompletableFuture<List<Transaction>> getFullStatement(String accountNumber) { return supply(() -> bank.getFullStatement(accountNumber)); }
+    public CompletableFuture<StatementPage> queryStatement(StatementQuery q, long cursor, int limit) { return supply(() -> bank.queryStatement(q, cursor, limit)); }
+    public CompletableFuture<StatementOutline> outlineStatement(StatementQuery q, int pageSize) { return supply(() -> bank.outlineStatement(q, pageSize)); }
+    public CompletableFuture<long[]> getDailyClosingBalances(String accNo, LocalDate from, LocalDate to) { return supply(() -> bank.getDailyClosingBalances(accNo, from, to)); }
+    public CompletableFuture<DailySummary> periodSummary(String accNo, LocalDate from, LocalDate to) { return supply(() -> bank.periodSummary(accNo, from, to)); }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> call) { return CompletableFuture.supplyAsync(call, worker); }
+    private CompletableFuture<Void> run(Runnable call) { return CompletableFuture.runAsync(call, worker); }
+
+    /** Delivers the outcome of {@code f} on the EDT, unwrapping the exception thrown by the bank call. */
+    static <T> void onEdt(CompletableFuture<T> f, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        f.whenComplete((v, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex == null) onSuccess.accept(v);
+            else onFailure.accept(ex instanceof CompletionException || ex instanceof ExecutionException ? ex.getCause() : ex);
+        }));
+    }
+
+    /** A rule said no (bad input, insufficient funds, ...): trying again would get the same answer. */
+    static boolean isRefusal(Throwable ex) { return ex instanceof IllegalArgumentException || ex instanceof IllegalStateException; }
+}
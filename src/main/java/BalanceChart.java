@@ -0,0 +1,47 @@
+import javax.swing.*;
+
+import java.awt.BasicStroke;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/** Line chart of daily closing balances for the Overview tab. */
+class BalanceChart extends JComponent {
+    static final int DAYS = 30;
+    private long[] balances = new long[0];
+
+    BalanceChart() { setPreferredSize(new Dimension(420, 140)); }
+
+    void setBalances(long[] balances) {
+        this.balances = balances;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int w = getWidth(), h = getHeight(), pad = 6;
+            g2.setColor(BankAppGUI.LIGHT_BLUE);
+            g2.fillRect(0, 0, w, h);
+            if (balances.length < 2) return;
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (long b : balances) { min = Math.min(min, b); max = Math.max(max, b); }
+            double span = Math.max(1, max - min);
+            int[] xs = new int[balances.length], ys = new int[balances.length];
+            for (int i = 0; i < balances.length; i++) {
+                xs[i] = pad + (int) ((w - 2L * pad) * i / (balances.length - 1));
+                ys[i] = h - pad - (int) ((h - 2 * pad) * ((balances[i] - min) / span));
+            }
+            g2.setColor(BankAppGUI.PRIMARY_BLUE);
+            g2.setStroke(new BasicStroke(2f));
+            g2.drawPolyline(xs, ys, xs.length);
+            g2.setFont(BankAppGUI.BODY_FONT.deriveFont(11f));
+            g2.setColor(BankAppGUI.DARK_BLUE);
+            g2.drawString("₹" + Money.format(max), pad, pad + 11);
+            g2.drawString("₹" + Money.format(min), pad, h - pad);
+        } finally { g2.dispose(); }
+    }
+}
@@ -0,0 +1,633 @@
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+
+/**
+ * Domain layer, safe for concurrent use: every balance change runs under the lock stripe of its account(s),
+ * together with its log append. The transaction log is the write-ahead log (each row carries the balance after
+ * it); accounts.csv is only brought up to date by checkpoints, and {@link #bootstrap} replays the rows since.
+ */
+class Bank {
+    private static final int LOCK_STRIPES = 256; // power of two
+
+    private final Storage storage;
+    private final Map<String, Account> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, Account> byAccountNo = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final Object createLock = new Object();
+    private final Sessions sessions = new Sessions();
+    private final Set<Account> dirty = ConcurrentHashMap.newKeySet(); // balance changed since the last checkpoint
+    private final ReentrantLock checkpointLock = new ReentrantLock(); // taken before any stripe
+    private volatile ScheduledExecutorService checkpointer;
+
+    private static final long ANNUAL_RATE_BP = 400; // 4% p.a., in basis points
+    private static final String REUSED_KEY = "Idempotency key already used for a different request";
+
+    /** Over the storage engine and data directory named by the configuration (see {@link Storage#fromConfig}). */
+    public Bank() { this(Storage.fromConfig()); }
+
+    public Bank(Storage storage) {
+        this.storage = storage;
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+    }
+
+    private volatile long bootstrapMillis;
+
+    public void bootstrap() { bootstrap(f -> { }); }
+
+    /**
+     * Loads accounts and replays the log rows written after the last checkpoint; the transaction index is built
+     * on first use (statement or posting). {@code progress} receives the fraction of accounts loaded, from
+     * worker threads.
+     */
+    public void bootstrap(DoubleConsumer progress) {
+        long start = System.nanoTime();
+        try {
+            storage.ensureFiles();
+            List<Account> accounts = storage.loadAccounts(progress);
+            accounts.parallelStream().forEach(a -> {
+                byUsername.put(a.getUsername(), a);
+                byAccountNo.put(a.getAccountNumber(), a);
+            });
+            long replayStart = System.nanoTime();
+            long rows = storage.replayJournal(storage.recoverJournal(), this::redo);
+            if (rows > 0) {
+                double ms = (System.nanoTime() - replayStart) / 1e6;
+                Metrics.log.info(() -> String.format(Locale.US, "Recovered %d transaction rows written after the last checkpoint in %.1f ms", rows, ms));
+            }
+            bootstrapMillis = (System.nanoTime() - start) / 1_000_000;
+        } catch (RuntimeException e) { Metric.BOOTSTRAP.failed(); throw e; }
+        finally { Metric.BOOTSTRAP.record(start); }
+    }
+
+    /** Re-applies one logged row. Rows carry absolute balances, so replaying a row twice does no harm. */
+    private void redo(Transaction t) {
+        Account a = byAccountNo.get(t.getAccountNumber());
+        if (a == null) return; // its record never made it to disk
+        a.setBalance(t.getBalanceAfter());
+        LocalDate day = t.getTimestamp().toLocalDate();
+        if (t.getType() == TxType.INTEREST && day.isAfter(a.getLastInterestApplied())) a.setLastInterestApplied(day);
+        dirty.add(a);
+    }
+
+    /**
+     * Checkpoints changed accounts in the background every bank.checkpoint.seconds (default 10) until {@link #close},
+     * and sweeps expired sessions once a minute.
+     */
+    public void startCheckpoints() {
+        long seconds = Long.getLong("bank.checkpoint.seconds", 10);
+        if (checkpointer != null) return;
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        if (seconds > 0) {
+            s.scheduleWithFixedDelay(() -> {
+                try { checkpoint(); }
+                catch (RuntimeException e) { Metrics.log.log(Level.WARNING, "Checkpoint failed, will retry", e); }
+            }, seconds, seconds, TimeUnit.SECONDS);
+        }
+        s.scheduleWithFixedDelay(sessions::sweep, 1, 1, TimeUnit.MINUTES);
+        checkpointer = s;
+    }
+
+    /**
+     * Writes the records of accounts changed since the last checkpoint, then moves the replay start up to the
+     * log end as it was before they were copied. Changes mark their account dirty before appending and set the
+     * balance only after, so each copy (taken under the stripe) holds exactly the rows already logged.
+     */
+    public void checkpoint() {
+        long t0 = System.nanoTime();
+        checkpointLock.lock();
+        try {
+            if (dirty.isEmpty()) return; // not timed: idle ticks would drown out the checkpoints that write
+            long upTo = storage.journalEnd();
+            List<Account> taken = new ArrayList<>(dirty.size());
+            List<Account> copies = new ArrayList<>(dirty.size());
+            List<DailySummary> days = new ArrayList<>(dirty.size());
+            for (Iterator<Account> it = dirty.iterator(); it.hasNext(); ) {
+                Account a = it.next();
+                it.remove(); // before the copy: a change made after it marks the account again
+                taken.add(a);
+                ReentrantLock l = lockFor(a.getAccountNumber());
+                l.lock();
+                try {
+                    copies.add(a.copy());
+                    storage.takeDailySummaryChanges(a.getAccountNumber(), days);
+                } finally { l.unlock(); }
+            }
+            try {
+                storage.checkpoint(copies, days, upTo);
+            } catch (RuntimeException e) {
+                dirty.addAll(taken);
+                storage.restoreDailySummaryChanges(days);
+                Metric.CHECKPOINT.failed();
+                throw e;
+            } finally { Metric.CHECKPOINT.record(t0); }
+        } finally { checkpointLock.unlock(); }
+    }
+
+
+    /** Batch latency and throughput of the transaction log writer (see {@link FileStorage#transactionLogStats}). */
+    public String transactionLogStats() { return storage.transactionLogStats(); }
+
+    /** Appends this start's timings to the startup log; {@code loginReadyMillis} is measured from JVM start. */
+    public void recordStartup(long loginReadyMillis) {
+        storage.appendStartupTime(byAccountNo.size(), bootstrapMillis, loginReadyMillis);
+    }
+
+    /**
+     * Full rewrite of accounts.csv as a checkpoint of every account; bulk jobs that change balances without
+     * going through the methods below call this when they finish.
+     */
+    public void persist() {
+        long t0 = System.nanoTime();
+        try {
+            checkpointLock.lock();
+            try {
+                long upTo = storage.journalEnd();
+                dirty.clear();
+                List<Account> copies = new ArrayList<>(byUsername.size());
+                List<DailySummary> days = new ArrayList<>();
+                for (Account a : byUsername.values()) {
+                    ReentrantLock l = lockFor(a.getAccountNumber());
+                    l.lock();
+                    try {
+                        copies.add(a.copy());
+                        storage.takeDailySummaryChanges(a.getAccountNumber(), days);
+                    } finally { l.unlock(); }
+                }
+                storage.saveAccounts(copies);
+                try {
+                    storage.checkpoint(Collections.emptyList(), days, upTo);
+                } catch (RuntimeException e) {
+                    storage.restoreDailySummaryChanges(days);
+                    throw e;
+                }
+            } finally { checkpointLock.unlock(); }
+        } catch (RuntimeException e) { Metric.PERSIST.failed(); throw e; }
+        finally { Metric.PERSIST.record(t0); }
+    }
+
+    /** Stops background checkpoints, takes a last one, then flushes and closes the transaction log; called on JVM shutdown. */
+    public void close() {
+        ScheduledExecutorService s = checkpointer;
+        if (s != null) {
+            s.shutdown();
+            try { s.awaitTermination(1, TimeUnit.MINUTES); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        try { checkpoint(); }
+        finally { storage.close(); }
+    }
+
+    public boolean userExists(String username) { return byUsername.containsKey(username); }
+
+    /** Raised by {@link #createAccount} so the UI can show it as a warning rather than an error. */
+    static class UsernameTakenException extends IllegalStateException {
+        UsernameTakenException() { super("Username already exists."); }
+    }
+
+    public Account createAccount(String username, String fullName, String password, long openingDeposit) {
+        return createAccount(username, fullName, password, openingDeposit, null);
+    }
+
+    /**
+     * Opening accounts is not logged, so with an idempotency key a repeat is recognised by its effect: the account
+     * is there with the same name and password, and holds either this key's opening deposit or no rows at all
+     * (the first attempt failed before the deposit, which is then finished here).
+     */
+    public Account createAccount(String username, String fullName, String password, long openingDeposit, String requestKey) {
+        Account acc;
+        synchronized (createLock) { // rare; keeps the username check and the record write atomic
+            Account existing = byUsername.get(username);
+            if (existing == null) acc = open(username, fullName, password);
+            else if (isRepeatOpening(existing, fullName, password, openingDeposit, requestKey)) acc = existing;
+            else throw new UsernameTakenException();
+        }
+        if (openingDeposit > 0) deposit(acc, openingDeposit, requestKey);
+        return acc;
+    }
+
+    private boolean isRepeatOpening(Account acc, String fullName, String password, long openingDeposit, String requestKey) {
+        if (requestKey == null || !acc.getFullName().equals(fullName) || !checkPassword(acc, password)) return false;
+        if (openingDeposit > 0 && storage.findRequest(Ids.requestKey(acc.getAccountNumber(), requestKey)) != null) return true;
+        return storage.loadDailySummaries(acc.getAccountNumber(), null, null).isEmpty();
+    }
+
+    /** Under createLock. */
+    private Account open(String username, String fullName, String password) {
+        String accNo;
+        do accNo = storage.newAccountNumber(); while (byAccountNo.containsKey(accNo));
+        Account acc = new Account(accNo, username, Crypto.sha256(password), fullName, 0, LocalDate.now());
+        storage.saveAccount(acc); // first, so an oversized record is rejected before the maps change
+        byAccountNo.put(accNo, acc);
+        byUsername.put(username, acc);
+        return acc;
+    }
+
+    /** Timed as {@link Metric#LOGIN}, with refused logins counted as its errors. */
+    public Optional<Account> login(String username, String password) {
+        long t0 = System.nanoTime();
+        try {
+            Account a = byUsername.get(username);
+            if (a != null && checkPassword(a, password)) return Optional.of(a);
+            Metric.LOGIN.failed();
+            return Optional.empty();
+        } finally { Metric.LOGIN.record(t0); }
+    }
+
+    public boolean checkPassword(Account acc, String password) {
+        return acc.getPasswordHash().equals(Crypto.sha256(password));
+    }
+
+    /** Logs in and returns a session token for {@link #resumeSession}; empty on bad credentials. */
+    public Optional<String> openSession(String username, String password) {
+        return login(username, password).map(sessions::open);
+    }
+
+    /** The account behind a live session token, without hashing anything. */
+    public Optional<Account> resumeSession(String token) { return sessions.resume(token); }
+
+    public void closeSession(String token) { sessions.close(token); }
+
+    public void changePassword(Account acc, String newPassword) { changePassword(acc, newPassword, null); }
+
+    /**
+     * Not logged, so the record is written right away; under the checkpoint lock, so an older copy taken by a
+     * running checkpoint cannot overwrite it. Also ends every open session of the account. With an idempotency
+     * key, a repeat finds the password already set and does nothing, leaving sessions opened since then alone.
+     */
+    public void changePassword(Account acc, String newPassword, String requestKey) {
+        String hash = Crypto.sha256(newPassword);
+        if (requestKey != null && acc.getPasswordHash().equals(hash)) return;
+        checkpointLock.lock();
+        try {
+            ReentrantLock l = lockFor(acc.getAccountNumber());
+            l.lock();
+            try {
+                acc.setPasswordHash(hash);
+                storage.saveAccount(acc);
+            } finally { l.unlock(); }
+        } finally { checkpointLock.unlock(); }
+        sessions.closeAll(acc);
+    }
+
+    public long refreshBalance(Account acc) { return acc.getBalance(); }
+
+    public Transaction deposit(Account acc, long amount) { return deposit(acc, amount, null); }
+
+    /**
+     * Deposits and returns the row written. With an idempotency key the account has used before (see
+     * {@link RequestKeys}), returns that request's row instead of posting again.
+     */
+    public Transaction deposit(Account acc, long amount, String requestKey) {
+        long t0 = System.nanoTime();
+        try {
+            if (amount <= 0) throw new IllegalArgumentException("Amount must be > 0");
+            long key = Ids.requestKey(acc.getAccountNumber(), requestKey);
+            Transaction[] done = storage.findRequest(key); // first without the lock: a repeat costs one lookup
+            if (done != null) return repeated(done, TxType.DEPOSIT, amount);
+            ReentrantLock l = lockFor(acc.getAccountNumber());
+            l.lock();
+            try {
+                done = storage.findRequest(key); // a concurrent repeat may have posted meanwhile
+                if (done != null) return repeated(done, TxType.DEPOSIT, amount);
+                long after = Math.addExact(acc.getBalance(), amount);
+                dirty.add(acc);
+                Transaction t = Transaction.deposit(acc.getAccountNumber(), amount, after);
+                if (key != 0) t = t.withRequestKey(key);
+                storage.appendTransaction(t);
+                acc.setBalance(after);
+                return t;
+            } finally { l.unlock(); }
+        } catch (RuntimeException e) { Metric.DEPOSIT.failed(); throw e; }
+        finally { Metric.DEPOSIT.record(t0); }
+    }
+
+    public Transaction withdraw(Account acc, long amount) { return withdraw(acc, amount, null); }
+
+    /** As {@link #deposit(Account, long, String)}, for a withdrawal. */
+    public Transaction withdraw(Account acc, long amount, String requestKey) {
+        long t0 = System.nanoTime();
+        try {
+            if (amount <= 0) throw new IllegalArgumentException("Amount must be > 0");
+            long key = Ids.requestKey(acc.getAccountNumber(), requestKey);
+            Transaction[] done = storage.findRequest(key);
+            if (done != null) return repeated(done, TxType.WITHDRAWAL, amount);
+            ReentrantLock l = lockFor(acc.getAccountNumber());
+            l.lock();
+            try {
+                done = storage.findRequest(key);
+                if (done != null) return repeated(done, TxType.WITHDRAWAL, amount);
+                if (acc.getBalance() < amount) throw new IllegalStateException("Insufficient funds");
+                long after = acc.getBalance() - amount;
+                dirty.add(acc);
+                Transaction t = Transaction.withdraw(acc.getAccountNumber(), amount, after);
+                if (key != 0) t = t.withRequestKey(key);
+                storage.appendTransaction(t);
+                acc.setBalance(after);
+                return t;
+            } finally { l.unlock(); }
+        } catch (RuntimeException e) { Metric.WITHDRAW.failed(); throw e; }
+        finally { Metric.WITHDRAW.record(t0); }
+    }
+
+    public Transaction transfer(Account from, String toUsername, long amount) { return transfer(from, toUsername, amount, null); }
+
+    /** Transfers and returns the debit row; the idempotency key works as for {@link #deposit(Account, long, String)}. */
+    public Transaction transfer(Account from, String toUsername, long amount, String requestKey) {
+        long t0 = System.nanoTime();
+        try {
+            if (amount <= 0) throw new IllegalArgumentException("Amount must be > 0");
+            Account to = byUsername.get(toUsername);
+            if (to == null) throw new IllegalArgumentException("Recipient not found");
+            if (from.getUsername().equals(toUsername)) throw new IllegalArgumentException("Cannot transfer to self");
+            return post(Posting.transfer(from.getAccountNumber(), to.getAccountNumber(), amount).withRequestKey(requestKey)).get(0);
+        } catch (RuntimeException e) { Metric.TRANSFER.failed(); throw e; }
+        finally { Metric.TRANSFER.record(t0); }
+    }
+
+    /**
+     * Applies every leg of the posting or none: fails with IllegalStateException("Insufficient funds") if any
+     * account's balance would go below zero along the way. The legs' rows share one id and are appended in one
+     * group commit; they are returned in leg order. A posting whose idempotency key was used before, by the
+     * account of its first leg, returns that request's rows instead.
+     */
+    public List<Transaction> post(Posting p) {
+        long t0 = System.nanoTime();
+        try {
+            Account[] accounts = resolve(p);
+            long key = Ids.requestKey(p.legs.get(0).accountNumber, p.requestKey);
+            Transaction[] done = storage.findRequest(key);
+            if (done != null) return Arrays.asList(repeated(done, p));
+            BitSet held = new BitSet(LOCK_STRIPES);
+            for (Account a : accounts) held.set(stripeOf(a.getAccountNumber()));
+            lockAll(held);
+            try {
+                done = storage.findRequest(key);
+                if (done != null) return Arrays.asList(repeated(done, p));
+                List<Transaction> rows = new ArrayList<>(p.legs.size());
+                Map<Account, Long> balances = new IdentityHashMap<>();
+                apply(p, key, accounts, rows, balances);
+                storage.appendTransactions(rows);
+                settle(balances);
+                return rows;
+            } finally { unlockAll(held); }
+        } catch (RuntimeException e) { Metric.POST.failed(); throw e; }
+        finally { Metric.POST.record(t0); }
+    }
+
+    /**
+     * Posts many postings under one acquisition of their account stripes and logs them all in a single append.
+     * Each is applied or rejected on its own, in list order; the result holds the reason each rejected posting
+     * failed, or null where it was posted (or had been, under the same idempotency key).
+     */
+    public String[] postAll(List<Posting> postings) {
+        long t0 = System.nanoTime();
+        try {
+            String[] rejected = new String[postings.size()];
+            Account[][] accounts = new Account[postings.size()][];
+            long[] keys = new long[postings.size()];
+            BitSet held = new BitSet(LOCK_STRIPES);
+            for (int i = 0; i < accounts.length; i++) {
+                Posting p = postings.get(i);
+                try {
+                    accounts[i] = resolve(p);
+                    keys[i] = Ids.requestKey(p.legs.get(0).accountNumber, p.requestKey);
+                    for (Account a : accounts[i]) held.set(stripeOf(a.getAccountNumber()));
+                } catch (IllegalArgumentException e) { rejected[i] = e.getMessage(); }
+            }
+            lockAll(held);
+            try {
+                List<Transaction> rows = new ArrayList<>();
+                Map<Account, Long> balances = new IdentityHashMap<>();
+                Map<Long, Transaction[]> posted = new HashMap<>(); // keys used earlier in this batch
+                for (int i = 0; i < accounts.length; i++) {
+                    if (rejected[i] != null) continue;
+                    Posting p = postings.get(i);
+                    try {
+                        Transaction[] done = keys[i] == 0 ? null : posted.containsKey(keys[i]) ? posted.get(keys[i]) : storage.findRequest(keys[i]);
+                        if (done != null) { repeated(done, p); continue; }
+                        int first = rows.size();
+                        apply(p, keys[i], accounts[i], rows, balances);
+                        if (keys[i] != 0) posted.put(keys[i], rows.subList(first, rows.size()).toArray(new Transaction[0]));
+                    }
+                    catch (IllegalStateException e) { rejected[i] = e.getMessage(); }
+                    catch (ArithmeticException e) { rejected[i] = "Balance overflow"; }
+                }
+                if (!rows.isEmpty()) storage.appendTransactions(rows);
+                settle(balances);
+            } finally { unlockAll(held); }
+            return rejected;
+        } catch (RuntimeException e) { Metric.POST_ALL.failed(); throw e; }
+        finally { Metric.POST_ALL.record(t0); }
+    }
+
+    /** The original row of a repeated single-row request, provided the repeat asks for the same thing. */
+    private static Transaction repeated(Transaction[] done, TxType type, long amount) {
+        if (done.length != 1 || done[0].getType() != type || done[0].getAmount() != amount) throw new IllegalStateException(REUSED_KEY);
+        return done[0];
+    }
+
+    private static Transaction[] repeated(Transaction[] done, Posting p) {
+        if (done.length != p.legs.size()) throw new IllegalStateException(REUSED_KEY);
+        for (int i = 0; i < done.length; i++) {
+            Posting.Leg l = p.legs.get(i);
+            if (!done[i].getAccountNumber().equals(l.accountNumber) || done[i].getAmount() != Math.abs(l.amount)
+                    || (done[i].getType() == TxType.TRANSFER_OUT) != (l.amount < 0)) throw new IllegalStateException(REUSED_KEY);
+        }
+        return done;
+    }
+
+    private Account[] resolve(Posting p) {
+        Account[] accounts = new Account[p.legs.size()];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = byAccountNo.get(p.legs.get(i).accountNumber);
+            if (accounts[i] == null) throw new IllegalArgumentException("Account not found: " + p.legs.get(i).accountNumber);
+        }
+        return accounts;
+    }
+
+    /**
+     * Checks every leg against the running balances first, so a refused posting changes nothing, then adds its rows
+     * and the new balances, which {@link #settle} sets once the rows are appended. Stripes held.
+     */
+    private void apply(Posting p, long key, Account[] accounts, List<Transaction> rows, Map<Account, Long> balances) {
+        int n = accounts.length;
+        long[] after = new long[n];
+        for (int i = 0; i < n; i++) {
+            long before = balances.getOrDefault(accounts[i], accounts[i].getBalance());
+            for (int j = i - 1; j >= 0; j--) if (accounts[j] == accounts[i]) { before = after[j]; break; }
+            after[i] = Math.addExact(before, p.legs.get(i).amount);
+            if (after[i] < 0) throw new IllegalStateException("Insufficient funds");
+        }
+        String id = Ids.newTransactionId();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < n; i++) {
+            Posting.Leg l = p.legs.get(i);
+            balances.put(accounts[i], after[i]);
+            dirty.add(accounts[i]);
+            String details = l.details != null ? l.details : p.description != null ? p.description : "Posting";
+            rows.add(new Transaction(id, now, l.accountNumber, l.amount < 0 ? TxType.TRANSFER_OUT : TxType.TRANSFER_IN,
+                    Math.abs(l.amount), after[i], details, counterparty(p, l), n, key));
+        }
+    }
+
+    private static void settle(Map<Account, Long> balances) { balances.forEach(Account::setBalance); }
+
+    /** The one account on the other side of the leg, or "" when there are several. */
+    private static String counterparty(Posting p, Posting.Leg leg) {
+        String other = "";
+        for (Posting.Leg l : p.legs) {
+            if ((l.amount < 0) == (leg.amount < 0) || l.accountNumber.equals(other)) continue;
+            if (!other.isEmpty()) return "";
+            other = l.accountNumber;
+        }
+        return other;
+    }
+
+    // Stripes are always taken in ascending stripe order (derived from the account numbers), so any two
+    // postings, opposite or overlapping, acquire shared stripes in the same order and cannot deadlock.
+    private void lockAll(BitSet held) {
+        for (int s = held.nextSetBit(0); s >= 0; s = held.nextSetBit(s + 1)) stripes[s].lock();
+    }
+
+    private void unlockAll(BitSet held) {
+        for (int s = held.previousSetBit(LOCK_STRIPES - 1); s >= 0; s = held.previousSetBit(s - 1)) stripes[s].unlock();
+    }
+
+    // Rows come back in log order, which is already timestamp order since the log is append-only.
+    public List<Transaction> getMiniStatement(String accountNumber, int lastN) {
+        return storage.loadRecentTransactionsFor(accountNumber, lastN);
+    }
+
+    public List<Transaction> getFullStatement(String accountNumber) {
+        return storage.loadTransactionsFor(accountNumber);
+    }
+
+    /** Rows dated {@code from} through {@code to}, both inclusive. */
+    public List<Transaction> getStatement(String accountNumber, LocalDate from, LocalDate to) {
+        return storage.loadTransactionsFor(accountNumber, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    /** One summary per day with rows, {@code from} through {@code to} inclusive, oldest first. */
+    public List<DailySummary> getDailySummaries(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("From date is after to date");
+        return storage.loadDailySummaries(accountNumber, from, to);
+    }
+
+    /** The closing balance of every day from {@code from} through {@code to}, carried over days without rows. */
+    public long[] getDailyClosingBalances(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("From date is after to date");
+        long[] closing = new long[(int) (to.toEpochDay() - from.toEpochDay() + 1)];
+        long balance = startBalance(accountNumber, from);
+        Iterator<DailySummary> days = storage.loadDailySummaries(accountNumber, from, to).iterator();
+        DailySummary next = days.hasNext() ? days.next() : null;
+        for (int i = 0; i < closing.length; i++) {
+            if (next != null && next.day.toEpochDay() == from.toEpochDay() + i) {
+                balance = next.closing;
+                next = days.hasNext() ? days.next() : null;
+            }
+            closing[i] = balance;
+        }
+        return closing;
+    }
+
+    /** Totals by type over {@code from} through {@code to}; its opening and closing are the period's. */
+    public DailySummary periodSummary(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("From date is after to date");
+        long[] amounts = new long[TxType.values().length];
+        int[] counts = new int[amounts.length];
+        long closing = startBalance(accountNumber, from), last = -1;
+        for (DailySummary d : storage.loadDailySummaries(accountNumber, from, to)) {
+            for (TxType t : TxType.values()) {
+                amounts[t.ordinal()] += d.amount(t);
+                counts[t.ordinal()] += d.count(t);
+            }
+            closing = d.closing;
+            last = d.lastPosition;
+        }
+        return new DailySummary(accountNumber, to, last, closing, amounts, counts);
+    }
+
+    private long startBalance(String accountNumber, LocalDate day) {
+        Long b = storage.balanceAtStartOf(accountNumber, day);
+        if (b != null) return b;
+        Account a = byAccountNo.get(accountNumber);
+        return a == null ? 0 : a.getBalance(); // no rows at all: the balance has never moved
+    }
+
+    /**
+     * Up to {@code limit} rows matching {@code q}, oldest first. Pass -1 as {@code cursor} for the first page and
+     * the previous page's {@link StatementPage#next} after that.
+     */
+    public StatementPage queryStatement(StatementQuery q, long cursor, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Page size must be > 0");
+        return storage.queryTransactions(q, cursor, limit);
+    }
+
+    /** Counts the rows matching {@code q} and where each page of {@code pageSize} starts; see {@link #queryStatement}. */
+    public StatementOutline outlineStatement(StatementQuery q, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be > 0");
+        return storage.outlineTransactions(q, pageSize);
+    }
+
+    public long applyInterest(Account acc) { return applyInterest(acc, null); }
+
+    /** Returns the interest credited, in paise; the idempotency key works as for {@link #deposit(Account, long, String)}. */
+    public long applyInterest(Account acc, String requestKey) {
+        long t0 = System.nanoTime();
+        try {
+            long key = Ids.requestKey(acc.getAccountNumber(), requestKey);
+            Transaction[] done = storage.findRequest(key);
+            if (done != null) return repeated(done, TxType.INTEREST, done[0].getAmount()).getAmount();
+            ReentrantLock l = lockFor(acc.getAccountNumber());
+            l.lock();
+            try {
+                done = storage.findRequest(key);
+                if (done != null) return repeated(done, TxType.INTEREST, done[0].getAmount()).getAmount();
+                LocalDate last = acc.getLastInterestApplied();
+                LocalDate today = LocalDate.now();
+                if (!today.isAfter(last)) return 0;
+                long days = Duration.between(last.atStartOfDay(), today.atStartOfDay()).toDays();
+                long interest = interestFor(acc.getBalance(), days);
+                if (interest > 0) {
+                    long after = Math.addExact(acc.getBalance(), interest);
+                    dirty.add(acc);
+                    Transaction t = Transaction.interest(acc.getAccountNumber(), interest, after, days);
+                    storage.appendTransaction(key != 0 ? t.withRequestKey(key) : t);
+                    acc.setBalance(after);
+                    acc.setLastInterestApplied(today);
+                }
+                return interest;
+            } finally { l.unlock(); }
+        } catch (RuntimeException e) { Metric.APPLY_INTEREST.failed(); throw e; }
+        finally { Metric.APPLY_INTEREST.record(t0); }
+    }
+
+    /** Simple daily pro-rated interest, rounded half-up to the paisa. */
+    static long interestFor(long balance, long days) {
+        if (balance <= 0 || days <= 0) return 0;
+        long den = 365L * 10_000;
+        return (Math.multiplyExact(Math.multiplyExact(balance, days), ANNUAL_RATE_BP) + den / 2) / den;
+    }
+
+    Collection<Account> accounts() { return Collections.unmodifiableCollection(byAccountNo.values()); }
+
+    Account findByAccountNumber(String accountNumber) { return byAccountNo.get(accountNumber); }
+
+    private ReentrantLock lockFor(String accountNumber) { return stripes[stripeOf(accountNumber)]; }
+
+    private static int stripeOf(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+}
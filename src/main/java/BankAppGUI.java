@@ -0,0 +1,44 @@
+import javax.swing.*;
+
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * Online Banking System (Swing GUI)
+ * Features:
+ *  - Create Account with validation
+ *  - Secure login (SHA-256 hashed passwords)
+ *  - Deposit / Withdraw / Transfer
+ *  - Mini-statement (last 5 transactions)
+ *  - Full statement (all transactions)
+ *  - Apply simple interest (daily pro-rated)
+ *  - Change password
+ *  - CSV persistence (bank_data/accounts.csv, bank_data/transactions.csv)
+ *
+ * How to run:
+ *   mvn package && java -jar target/online-banking-1.0-SNAPSHOT.jar   (then the same with the options below)
+ *   java BankAppGUI --stress [transfers] [accounts]   (headless concurrency check, see StressTest)
+ *   java BankAppGUI --convert-journal <in> <out>      (CSV <-> binary transaction log, see JournalConverter)
+ *   java BankAppGUI --batch <file>                    (headless bulk posting, see BatchPoster)
+ *   java BankAppGUI --accrue-interest [yyyy-MM-dd]    (nightly interest for every account, see InterestJob)
+ *   java BankAppGUI --serve [port]                    (local HTTP/JSON API, see ApiServer)
+ */
+public class BankAppGUI {
+    // UI Constants
+    public static final Color PRIMARY_BLUE = new Color(0, 102, 204);
+    public static final Color SECONDARY_BLUE = new Color(51, 153, 255);
+    public static final Color LIGHT_BLUE = new Color(173, 216, 230);
+    public static final Color DARK_BLUE = new Color(0, 51, 102);
+    public static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 24);
+    public static final Font HEADER_FONT = new Font("Arial", Font.BOLD, 18);
+    public static final Font BODY_FONT = new Font("Arial", Font.PLAIN, 14);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--stress")) { System.exit(StressTest.run(args)); }
+        if (args.length > 0 && args[0].equals("--convert-journal")) { System.exit(JournalConverter.run(args)); }
+        if (args.length > 0 && args[0].equals("--batch")) { System.exit(BatchPoster.run(args)); }
+        if (args.length > 0 && args[0].equals("--accrue-interest")) { System.exit(InterestJob.run(args)); }
+        if (args.length > 0 && args[0].equals("--serve")) { ApiServer.run(args); return; }
+        SwingUtilities.invokeLater(() -> new AppFrame().setVisible(true));
+    }
+}
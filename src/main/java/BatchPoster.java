@@ -0,0 +1,253 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Headless bulk posting: {@code java BankAppGUI --batch <file>} posts a CSV of deposits, withdrawals and transfers
+ * (format in the README) with the same checks as {@link Bank}, as if one by one in file order. Entries are grouped
+ * into waves in which no two share an account, each wave posted in parallel; the log is then written in one pass
+ * and accounts.csv saved once. The job has the bank to itself, so it takes no account locks.
+ */
+class BatchPoster {
+    private static final byte DEPOSIT = 0, WITHDRAWAL = 1, TRANSFER = 2;
+    private static final int PARALLEL_WAVE = 4_096; // smaller waves are posted on the calling thread
+    private static final int WRITE_CHUNK = 16_384; // rows per log append
+
+    private final Bank bank;
+    private final Storage storage;
+    private final Map<Account, Integer> slots = new IdentityHashMap<>(); // index into balance
+    private long[] balance;                                              // working balances while posting
+
+    // One slot per batch line, in file order.
+    private int n;
+    private byte[] kind = new byte[1024];
+    private Account[] from = new Account[1024];
+    private Account[] to = new Account[1024];
+    private int[] fromSlot = new int[1024];
+    private int[] toSlot = new int[1024];
+    private long[] amount = new long[1024];
+    private long[] fromBalance = new long[1024]; // balance after the entry, for the log rows
+    private long[] toBalance = new long[1024];
+    private String[] details = new String[1024];
+    private String[] reason = new String[1024]; // null while the entry is accepted
+    private String[] raw = new String[1024];    // the line as read, kept only for rejected entries
+
+    BatchPoster(Bank bank, Storage storage) { this.bank = bank; this.storage = storage; }
+
+    static int run(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java BankAppGUI --batch <file>");
+            return 2;
+        }
+        Path file = Paths.get(args[1]);
+        Storage storage = Storage.fromConfig();
+        Bank bank = new Bank(storage);
+        long t0 = System.nanoTime();
+        bank.bootstrap();
+        try {
+            BatchPoster job = new BatchPoster(bank, storage);
+            long t1 = System.nanoTime();
+            job.read(file);
+            long t2 = System.nanoTime();
+            job.post();
+            long t3 = System.nanoTime();
+            int posted = job.write();
+            bank.persist();
+            long t4 = System.nanoTime();
+            int rejected = job.n - posted;
+            if (rejected > 0) job.writeRejects(file.resolveSibling(file.getFileName() + ".rejected.csv"));
+            System.out.printf(Locale.US, "%d entries: %d posted, %d rejected%n", job.n, posted, rejected);
+            System.out.printf(Locale.US, "load %.2f s, read %.2f s, post %.2f s (%.0f postings/s), write %.2f s%n",
+                    secs(t0, t1), secs(t1, t2), secs(t2, t3), posted / Math.max(secs(t2, t3), 1e-9), secs(t3, t4));
+            System.out.printf(Locale.US, "total %.2f s = %.0f postings/s end to end%n", secs(t1, t4), posted / Math.max(secs(t1, t4), 1e-9));
+            return rejected == 0 ? 0 : 1;
+        } finally {
+            bank.close();
+        }
+    }
+
+    private static double secs(long from, long to) { return (to - from) / 1e9; }
+
+    void read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            CsvTokenizer row = new CsvTokenizer(in, 0);
+            row.next(); // header
+            while (row.next()) {
+                if (row.fieldCount() == 0) continue; // blank line
+                int i = add();
+                try {
+                    if (row.fieldCount() < 3) throw new IllegalArgumentException("Expected type,account,amount[,toAccount,details]");
+                    String type = row.field(0);
+                    kind[i] = type.equals("DEPOSIT") ? DEPOSIT : type.equals("WITHDRAWAL") ? WITHDRAWAL : type.equals("TRANSFER") ? TRANSFER : -1;
+                    if (kind[i] < 0) throw new IllegalArgumentException("Unknown type " + type);
+                    from[i] = account(row.field(1), "Account not found");
+                    fromSlot[i] = slot(from[i]);
+                    amount[i] = row.fieldMoney(2);
+                    if (amount[i] <= 0) throw new IllegalArgumentException("Amount must be > 0");
+                    if (kind[i] == TRANSFER) {
+                        to[i] = account(row.fieldCount() > 3 ? row.field(3) : "", "Recipient not found");
+                        if (to[i] == from[i]) throw new IllegalArgumentException("Cannot transfer to self");
+                        toSlot[i] = slot(to[i]);
+                    }
+                    String d = row.fieldCount() > 4 ? row.field(4) : "";
+                    details[i] = d.isEmpty() ? null : d;
+                } catch (IllegalArgumentException e) { // NumberFormatException included
+                    reject(i, e.getMessage(), row);
+                }
+            }
+        }
+    }
+
+    private Account account(String accountNumber, String missing) {
+        Account a = bank.findByAccountNumber(accountNumber);
+        if (a == null) throw new IllegalArgumentException(missing);
+        return a;
+    }
+
+    private int slot(Account a) { return slots.computeIfAbsent(a, k -> slots.size()); }
+
+    /** Works out every entry's outcome and balances, without touching the accounts yet; see the class comment. */
+    void post() {
+        balance = new long[slots.size()];
+        slots.forEach((a, k) -> balance[k] = a.getBalance());
+        int[] wave = new int[n];
+        int[] order = waves(wave);
+        for (int from = 0, to; from < order.length; from = to) {
+            for (to = from + 1; to < order.length && wave[order[to]] == wave[order[from]]; ) to++;
+            IntStream entries = IntStream.range(from, to);
+            if (to - from >= PARALLEL_WAVE) entries = entries.parallel();
+            entries.forEach(k -> post(order[k]));
+        }
+    }
+
+    /** Same checks, in the same order, as {@link Bank#withdraw}, {@link Bank#deposit} and {@link Bank#post}. */
+    private void post(int i) {
+        int a = fromSlot[i];
+        try {
+            if (kind[i] == DEPOSIT) {
+                balance[a] = Math.addExact(balance[a], amount[i]);
+            } else {
+                if (balance[a] < amount[i]) { reason[i] = "Insufficient funds"; return; }
+                if (kind[i] == TRANSFER) {
+                    int b = toSlot[i];
+                    balance[b] = Math.addExact(balance[b], amount[i]);
+                    toBalance[i] = balance[b];
+                }
+                balance[a] -= amount[i];
+            }
+            fromBalance[i] = balance[a];
+        } catch (ArithmeticException e) { reason[i] = "Balance overflow"; }
+    }
+
+    /**
+     * Sets each accepted entry's wave, one after the latest wave holding one of its accounts, and returns the
+     * accepted entries ordered by wave, then file order.
+     */
+    private int[] waves(int[] wave) {
+        int[] next = new int[balance.length]; // first wave free for each account
+        int waves = 0;
+        for (int i = 0; i < n; i++) {
+            wave[i] = -1;
+            if (reason[i] != null) continue;
+            int w = next[fromSlot[i]];
+            if (kind[i] == TRANSFER) w = Math.max(w, next[toSlot[i]]);
+            wave[i] = w;
+            next[fromSlot[i]] = w + 1;
+            if (kind[i] == TRANSFER) next[toSlot[i]] = w + 1;
+            waves = Math.max(waves, w + 1);
+        }
+        int[] start = new int[waves + 1];
+        for (int i = 0; i < n; i++) if (wave[i] >= 0) start[wave[i] + 1]++;
+        for (int w = 0; w < waves; w++) start[w + 1] += start[w];
+        int[] fill = Arrays.copyOf(start, waves);
+        int[] order = new int[start[waves]];
+        for (int i = 0; i < n; i++) if (wave[i] >= 0) order[fill[wave[i]]++] = i;
+        return order;
+    }
+
+    /**
+     * Appends the rows of every posted entry in file order, which for each account is the order they were applied
+     * in, and sets each chunk's balances once it is appended. A transfer is written as {@link Bank#post} writes
+     * one, two legs sharing an id, and never split across chunks, so recovery can tell when a crash cut it short.
+     * Returns the number of posted entries.
+     */
+    int write() {
+        List<Transaction> rows = new ArrayList<>(WRITE_CHUNK);
+        List<Account> owners = new ArrayList<>(WRITE_CHUNK);
+        int posted = 0;
+        for (int i = 0; i < n; i++) {
+            if (reason[i] != null) continue;
+            posted++;
+            String acc = from[i].getAccountNumber();
+            owners.add(from[i]);
+            if (kind[i] == DEPOSIT) rows.add(row(Transaction.deposit(acc, amount[i], fromBalance[i]), details[i]));
+            else if (kind[i] == WITHDRAWAL) rows.add(row(Transaction.withdraw(acc, amount[i], fromBalance[i]), details[i]));
+            else {
+                String id = Ids.newTransactionId(), toAcc = to[i].getAccountNumber();
+                LocalDateTime now = LocalDateTime.now();
+                rows.add(new Transaction(id, now, acc, TxType.TRANSFER_OUT, amount[i], fromBalance[i],
+                        details[i] != null ? details[i] : "Transfer to " + toAcc, toAcc, 2));
+                rows.add(new Transaction(id, now, toAcc, TxType.TRANSFER_IN, amount[i], toBalance[i],
+                        details[i] != null ? details[i] : "Transfer from " + acc, acc, 2));
+                owners.add(to[i]);
+            }
+            if (rows.size() >= WRITE_CHUNK) append(rows, owners);
+        }
+        if (!rows.isEmpty()) append(rows, owners);
+        return posted;
+    }
+
+    private void append(List<Transaction> rows, List<Account> owners) {
+        storage.appendTransactions(rows);
+        for (int k = 0; k < rows.size(); k++) owners.get(k).setBalance(rows.get(k).getBalanceAfter());
+        rows.clear();
+        owners.clear();
+    }
+
+    private static Transaction row(Transaction t, String details) {
+        if (details == null) return t;
+        return new Transaction(t.getId(), t.getTimestamp(), t.getAccountNumber(), t.getType(), t.getAmount(),
+                t.getBalanceAfter(), details, t.getRelatedAccount());
+    }
+
+    void writeRejects(Path out) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            w.write("line,reason,entry\n");
+            for (int i = 0; i < n; i++) {
+                if (reason[i] == null) continue;
+                w.write((i + 2) + "," + CSV.escape(reason[i]) + "," + CSV.escape(raw[i] != null ? raw[i] : describe(i)) + "\n");
+            }
+        }
+    }
+
+    /** Rejections found while posting did not keep the raw line, so rebuild it. */
+    private String describe(int i) {
+        String type = kind[i] == DEPOSIT ? "DEPOSIT" : kind[i] == WITHDRAWAL ? "WITHDRAWAL" : "TRANSFER";
+        return type + "," + from[i].getAccountNumber() + "," + Money.format(amount[i]) + ","
+                + (to[i] == null ? "" : to[i].getAccountNumber()) + "," + (details[i] == null ? "" : details[i]);
+    }
+
+    private void reject(int i, String why, CsvTokenizer row) {
+        reason[i] = why;
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < row.fieldCount(); f++) {
+            if (f > 0) sb.append(',');
+            sb.append(row.field(f));
+        }
+        raw[i] = sb.toString();
+    }
+
+    private int add() {
+        if (n == kind.length) {
+            int c = n * 2;
+            kind = Arrays.copyOf(kind, c); from = Arrays.copyOf(from, c); to = Arrays.copyOf(to, c);
+            fromSlot = Arrays.copyOf(fromSlot, c); toSlot = Arrays.copyOf(toSlot, c);
+            amount = Arrays.copyOf(amount, c); fromBalance = Arrays.copyOf(fromBalance, c); toBalance = Arrays.copyOf(toBalance, c);
+            details = Arrays.copyOf(details, c); reason = Arrays.copyOf(reason, c); raw = Arrays.copyOf(raw, c);
+        }
+        return n++;
+    }
+}
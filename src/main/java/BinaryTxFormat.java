@@ -0,0 +1,262 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Binary journal (transactions.bin): a 64-byte header, then one fixed 64-byte record per transaction, read through
+ * memory-mapped buffers. Details strings are dictionary-encoded in transactions.bin.dict, each new entry synced
+ * before a record refers to it; the related account, or a lone number, is templated out so the dictionary stays
+ * small. Timestamps are nanoseconds, not micros, so a CSV log converts to binary and back unchanged.
+ *
+ * Record layout (big-endian):
+ *    0 long  timestamp, epoch nanoseconds of the local date-time
+ *    8 long  id high bits   } UUID ids: both halves; numeric ids: low = value, high = idempotency key fingerprint;
+ *   16 long  id low bits    } anything else: low = dictionary code of the id text
+ *   24 long  account number
+ *   32 long  amount, paise
+ *   40 long  balance after, paise
+ *   48 long  related account number, or -1 when there is none; with DETAILS_NUMBER, the details template's number
+ *   56 int   details, dictionary code
+ *   60 byte  TxType ordinal
+ *   61 byte  id kind (ID_UUID, ID_NUMERIC, ID_TEXT)
+ *   62 byte  leg count of the posting the row belongs to, 0 for a row of its own
+ *   63 byte  flags: DETAILS_TEMPLATE, DETAILS_NUMBER
+ */
+class BinaryTxFormat implements TxFormat {
+    static final int RECORD_LEN = 64;
+    private static final int MAGIC = 0x42545831; // "BTX1"
+    private static final byte ID_UUID = 0, ID_NUMERIC = 1, ID_TEXT = 2;
+    private static final byte DETAILS_TEMPLATE = 1; // details = dictionary text with PLACEHOLDER replaced by the long at 48
+    private static final byte DETAILS_NUMBER = 2;   // the long at 48 is that number, and there is no related account
+    private static final char PLACEHOLDER = '\u0001';
+    private static final long CHUNK = 1L << 30; // mapping granularity; a multiple of RECORD_LEN, so no record straddles two
+    private static final TxType[] TX_TYPES = TxType.values();
+
+    private final Path file;
+    private final Path dictFile;
+    private final List<String> dict = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private boolean dictLoaded;
+    private FileChannel dictOut;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private long mapped; // bytes of the file covered by 'chunks'
+
+    BinaryTxFormat(Path file) {
+        this.file = file;
+        this.dictFile = file.resolveSibling(file.getFileName() + ".dict");
+    }
+
+    public Path file() { return file; }
+
+    public byte[] header() {
+        return ByteBuffer.allocate(RECORD_LEN).putInt(MAGIC).putInt(RECORD_LEN).array();
+    }
+
+    public byte[] encode(Transaction t) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(RECORD_LEN);
+        LocalDateTime ts = t.getTimestamp();
+        b.putLong(ts.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + ts.getNano());
+        String id = t.getId();
+        byte kind;
+        if (id.length() == 36 && id.charAt(8) == '-') {
+            UUID u = UUID.fromString(id);
+            b.putLong(u.getMostSignificantBits()).putLong(u.getLeastSignificantBits());
+            kind = ID_UUID;
+        } else if (isDigits(id)) {
+            b.putLong(t.getRequestKey()).putLong(Long.parseLong(id));
+            kind = ID_NUMERIC;
+        } else {
+            if (t.getRequestKey() != 0) throw new IOException("Row " + id + " has an idempotency key but no numeric id");
+            b.putLong(0).putLong(code(id));
+            kind = ID_TEXT;
+        }
+        b.putLong(Long.parseLong(t.getAccountNumber()));
+        b.putLong(t.getAmount()).putLong(t.getBalanceAfter());
+        String related = t.getRelatedAccount(), details = t.getDetails() == null ? "" : t.getDetails();
+        long value = related == null || related.isEmpty() ? -1 : Long.parseLong(related);
+        byte flags = 0;
+        if (details.indexOf(PLACEHOLDER) < 0) {
+            if (value >= 0 && details.contains(related)) {
+                details = details.replace(related, String.valueOf(PLACEHOLDER));
+                flags = DETAILS_TEMPLATE;
+            } else if (value < 0) {
+                int at = firstNumber(details), end = at;
+                while (at >= 0 && end < details.length() && details.charAt(end) >= '0' && details.charAt(end) <= '9') end++;
+                if (at >= 0) {
+                    value = Long.parseLong(details.substring(at, end));
+                    details = details.substring(0, at) + PLACEHOLDER + details.substring(end);
+                    flags = DETAILS_TEMPLATE | DETAILS_NUMBER;
+                }
+            }
+        }
+        b.putLong(value);
+        b.putInt(code(details));
+        b.put((byte) t.getType().ordinal()).put(kind).put((byte) t.getLegs()).put(flags);
+        return b.array();
+    }
+
+    /** Where the details' only run of ASCII digits starts, if it reads back the same from a long; else -1. */
+    private static int firstNumber(String s) {
+        int at = -1, end = -1;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (at >= 0 && i > end) return -1; // a second run
+            if (at < 0) at = i;
+            end = i + 1;
+        }
+        return at >= 0 && isDigits(s.substring(at, end)) ? at : -1;
+    }
+
+    public void scan(long covered, RowSink sink) throws IOException {
+        long size = Files.size(file);
+        for (long off = covered < 0 ? RECORD_LEN : covered + RECORD_LEN; off + RECORD_LEN <= size; off += RECORD_LEN) {
+            sink.row(buffer(off).getLong(pos(off) + 24), off);
+            Metrics.bytesRead.add(RECORD_LEN);
+        }
+    }
+
+    public void forEach(Consumer<Transaction> action) throws IOException {
+        forEachBetween(RECORD_LEN, Long.MAX_VALUE, (off, t) -> { action.accept(t); return true; });
+    }
+
+    public void forEachBetween(long from, long to, DecodedSink sink) throws IOException {
+        long size = Files.size(file);
+        for (long off = from; off < to && off + RECORD_LEN <= size; off += RECORD_LEN) if (!sink.row(off, decode(off))) return;
+    }
+
+    public void scanArchive(InputStream in, String accountNumber, DecodedSink sink) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        long key = accountNumber == null ? 0 : Long.parseLong(accountNumber);
+        byte[] rec = new byte[RECORD_LEN];
+        ByteBuffer b = ByteBuffer.wrap(rec);
+        data.readFully(rec); // header
+        for (long off = RECORD_LEN; ; off += RECORD_LEN) {
+            try { data.readFully(rec); } catch (EOFException end) { return; }
+            if ((accountNumber == null || b.getLong(24) == key) && !sink.row(off, decode(b, 0))) return;
+        }
+    }
+
+    public long completeLength() throws IOException {
+        long size = Files.size(file);
+        return size < RECORD_LEN ? size : size / RECORD_LEN * RECORD_LEN;
+    }
+
+    public Reader openReader() {
+        return new Reader() {
+            public Transaction read(long offset, String accountNumber) throws IOException {
+                if (buffer(offset).getLong(pos(offset) + 24) != Long.parseLong(accountNumber)) return null;
+                return decode(offset);
+            }
+            public void close() { }
+        };
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (dictOut != null) { dictOut.close(); dictOut = null; }
+        chunks = new MappedByteBuffer[0];
+        mapped = 0;
+    }
+
+    private Transaction decode(long off) throws IOException {
+        Metrics.bytesRead.add(RECORD_LEN);
+        return decode(buffer(off), pos(off));
+    }
+
+    private Transaction decode(ByteBuffer b, int p) throws IOException {
+        long nanos = b.getLong(p);
+        LocalDateTime ts = LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+        long hi = b.getLong(p + 8), lo = b.getLong(p + 16);
+        byte kind = b.get(p + 61);
+        String id = kind == ID_UUID ? new UUID(hi, lo).toString() : kind == ID_NUMERIC ? Long.toString(lo) : text((int) lo);
+        long value = b.getLong(p + 48);
+        byte flags = b.get(p + 63);
+        String details = text(b.getInt(p + 56));
+        if ((flags & DETAILS_TEMPLATE) != 0) details = details.replace(String.valueOf(PLACEHOLDER), Long.toString(value));
+        String related = value < 0 || (flags & DETAILS_NUMBER) != 0 ? "" : Long.toString(value);
+        return new Transaction(id, ts, Long.toString(b.getLong(p + 24)), TX_TYPES[b.get(p + 60)],
+                b.getLong(p + 32), b.getLong(p + 40), details, related, b.get(p + 62) & 0xff, kind == ID_NUMERIC ? hi : 0);
+    }
+
+    private static int pos(long off) { return (int) (off % CHUNK); }
+
+    /** The mapped chunk holding the record at {@code off}, remapping the tail if the file has grown since. */
+    private synchronized ByteBuffer buffer(long off) throws IOException {
+        if (off + RECORD_LEN > mapped) {
+            long size = Files.size(file);
+            if (off + RECORD_LEN > size) throw new EOFException("No journal record at offset " + off);
+            int n = (int) ((size + CHUNK - 1) / CHUNK);
+            MappedByteBuffer[] next = Arrays.copyOf(chunks, n);
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (int i = Math.max(0, chunks.length - 1); i < n; i++) {
+                    long start = i * CHUNK;
+                    next[i] = ch.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK, size - start));
+                }
+            }
+            chunks = next;
+            mapped = size;
+        }
+        return chunks[(int) (off / CHUNK)];
+    }
+
+    private synchronized int code(String s) throws IOException {
+        loadDict();
+        Integer c = codes.get(s);
+        if (c != null) return c;
+        if (dictOut == null) dictOut = FileChannel.open(dictFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        ByteArrayOutputStream entry = new ByteArrayOutputStream(2 + s.length());
+        new DataOutputStream(entry).writeUTF(s);
+        ByteBuffer buf = ByteBuffer.wrap(entry.toByteArray());
+        while (buf.hasRemaining()) dictOut.write(buf);
+        dictOut.force(false); // before any record refers to it: a synced row must never point past the dictionary
+        codes.put(s, dict.size());
+        dict.add(s);
+        return dict.size() - 1;
+    }
+
+    private synchronized String text(int code) throws IOException {
+        loadDict();
+        if (code < 0 || code >= dict.size()) throw new IOException("Journal dictionary has no entry " + code);
+        return dict.get(code);
+    }
+
+    /** Reads the dictionary, cutting off an entry a crash left half written so the next one is not appended after it. */
+    private void loadDict() throws IOException {
+        if (dictLoaded) return;
+        if (Files.exists(dictFile)) {
+            long whole = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dictFile)))) {
+                while (true) {
+                    byte[] entry;
+                    try {
+                        int len = in.readUnsignedShort();
+                        entry = new byte[2 + len];
+                        entry[0] = (byte) (len >>> 8); entry[1] = (byte) len;
+                        in.readFully(entry, 2, len);
+                    } catch (EOFException end) { break; }
+                    String s = new DataInputStream(new ByteArrayInputStream(entry)).readUTF();
+                    codes.put(s, dict.size());
+                    dict.add(s);
+                    whole += entry.length;
+                }
+            }
+            if (whole < Files.size(dictFile)) {
+                try (FileChannel ch = FileChannel.open(dictFile, StandardOpenOption.WRITE)) { ch.truncate(whole); }
+            }
+        }
+        dictLoaded = true;
+    }
+
+    // Decimal ids that come back unchanged from Long.toString: no sign, no leading zero, at most Long.MAX_VALUE
+    private static boolean isDigits(String s) {
+        if (s.isEmpty() || s.length() > 19 || (s.charAt(0) == '0' && s.length() > 1)) return false;
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        return s.length() < 19 || s.compareTo("9223372036854775807") <= 0;
+    }
+}
@@ -0,0 +1,8 @@
+class CSV {
+    public static String escape(String s) {
+        if (s == null) return "";
+        boolean need = s.contains(",") || s.contains("\"") || s.contains("\n");
+        String out = s.replace("\"", "\"\"");
+        return need ? "\"" + out + "\"" : out;
+    }
+}
@@ -0,0 +1,23 @@
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+class Crypto {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // MessageDigest is not thread-safe; one per thread avoids both the provider lookup and any locking.
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try { return MessageDigest.getInstance("SHA-256"); }
+        catch (NoSuchAlgorithmException e) { throw new RuntimeException("SHA-256 not available"); }
+    });
+
+    /** Lower-case hex SHA-256 of the string's bytes in the platform charset, as stored in accounts.csv. */
+    public static String sha256(String input) { return hex(SHA256.get().digest(input.getBytes())); }
+
+    static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            out[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+}
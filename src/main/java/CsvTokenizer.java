@@ -0,0 +1,214 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Streaming CSV tokenizer over a reusable byte window. A row is exposed as field slices of the window, so callers
+ * can compare or parse fields in place and only allocate for the rows they keep. Trailing spaces (the padding of
+ * accounts.csv) and CR are trimmed from each row; blank rows have no fields. Field slices are valid until the
+ * next call to {@link #next()}.
+ */
+class CsvTokenizer {
+    private final InputStream in; // null when tokenizing single rows handed over by the caller
+    private byte[] buf;
+    private int pos, limit;       // unread window is buf[pos, limit)
+    private long bufBase;         // file offset of buf[0]
+    private boolean eof;
+
+    private int rowStart;
+    private int count;
+    private int[] starts = new int[16], ends = new int[16];
+    private boolean[] escaped = new boolean[16]; // quoted field containing "" pairs
+    private final Slice slice = new Slice();
+
+    /** Streams rows from {@code in}; {@code startOffset} is the file offset of its first byte. */
+    CsvTokenizer(InputStream in, long startOffset) {
+        this.in = in;
+        this.buf = new byte[1 << 16];
+        this.bufBase = startOffset;
+    }
+
+    /** Single-row mode, see {@link #row}. */
+    CsvTokenizer() {
+        this.in = null;
+        this.buf = new byte[0];
+    }
+
+    /** Tokenizes {@code a[from, to)} as one row (without its line terminator). */
+    CsvTokenizer row(byte[] a, int from, int to) {
+        buf = a;
+        rowStart = from;
+        split(from, to);
+        return this;
+    }
+
+    /** Advances to the next row; false at end of input. */
+    boolean next() throws IOException {
+        while (true) {
+            int end = rowEnd();
+            if (end >= 0) { rowStart = pos; split(pos, end); pos = end + 1; return true; }
+            if (eof) {
+                if (pos == limit) return false;
+                rowStart = pos; split(pos, limit); pos = limit;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    /** File offset of the current row's first byte (streaming mode). */
+    long rowOffset() { return bufBase + rowStart; }
+
+    int fieldCount() { return count; }
+
+    String field(int i) {
+        int s = starts[i], e = ends[i];
+        if (!escaped[i]) return new String(buf, s, e - s, StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(e - s);
+        for (int j = s; j < e; j++) {
+            out.write(buf[j]);
+            if (buf[j] == '"') j++; // "" -> "
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Byte-wise comparison against an ASCII string, e.g. an account number. */
+    boolean fieldEquals(int i, String ascii) {
+        int s = starts[i], n = ends[i] - s;
+        if (n != ascii.length() || escaped[i]) return false;
+        for (int j = 0; j < n; j++) if (buf[s + j] != ascii.charAt(j)) return false;
+        return true;
+    }
+
+    long fieldLong(int i) {
+        int s = starts[i], e = ends[i];
+        if (s == e) throw new NumberFormatException("Empty number field");
+        long v = 0;
+        for (int j = s; j < e; j++) {
+            int d = buf[j] - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("Not a number: " + field(i));
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    long fieldMoney(int i) { return Money.parse(slice(i)); }
+
+    boolean fieldEmpty(int i) { return starts[i] == ends[i]; }
+
+    /** ISO yyyy-MM-dd. */
+    LocalDate fieldDate(int i) {
+        int s = starts[i];
+        if (ends[i] - s != 10 || buf[s + 4] != '-' || buf[s + 7] != '-') return LocalDate.parse(field(i));
+        return LocalDate.of(digits(s, 4), digits(s + 5, 2), digits(s + 8, 2));
+    }
+
+    /** ISO yyyy-MM-ddTHH:mm:ss[.fraction]; other ISO forms fall back to LocalDateTime.parse. */
+    LocalDateTime fieldDateTime(int i) {
+        int s = starts[i], n = ends[i] - s;
+        if (n < 19 || buf[s + 10] != 'T' || buf[s + 13] != ':' || buf[s + 16] != ':' || (n > 19 && (buf[s + 19] != '.' || n > 29))) {
+            return LocalDateTime.parse(field(i));
+        }
+        int nanos = 0;
+        for (int j = 20; j < 29; j++) nanos = nanos * 10 + (j < n ? digit(s + j) : 0);
+        return LocalDateTime.of(digits(s, 4), digits(s + 5, 2), digits(s + 8, 2),
+                digits(s + 11, 2), digits(s + 14, 2), digits(s + 17, 2), nanos);
+    }
+
+    /** Matches the field against the constants' names without allocating. */
+    <E extends Enum<E>> E fieldEnum(int i, E[] constants) {
+        for (E c : constants) if (fieldEquals(i, c.name())) return c;
+        throw new IllegalArgumentException("Unknown value: " + field(i));
+    }
+
+    private int digits(int at, int len) {
+        int v = 0;
+        for (int j = at; j < at + len; j++) v = v * 10 + digit(j);
+        return v;
+    }
+
+    private int digit(int at) {
+        int d = buf[at] - '0';
+        if (d < 0 || d > 9) throw new DateTimeException("Bad date/time digit at column " + (at - rowStart));
+        return d;
+    }
+
+    private CharSequence slice(int i) {
+        slice.from = starts[i];
+        slice.to = ends[i];
+        return slice;
+    }
+
+    /** Index of the '\n' ending the row at pos (quoted newlines are part of the field), or -1 if not yet buffered. */
+    private int rowEnd() {
+        boolean quoted = false;
+        for (int j = pos; j < limit; j++) {
+            byte b = buf[j];
+            if (b == '"') quoted = !quoted;
+            else if (b == '\n' && !quoted) return j;
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            bufBase += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    private void split(int from, int to) {
+        while (to > from && (buf[to - 1] == ' ' || buf[to - 1] == '\r')) to--;
+        count = 0;
+        if (from == to) return;
+        int i = from;
+        while (true) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                escaped = Arrays.copyOf(escaped, count * 2);
+            }
+            boolean esc = false;
+            int s, e;
+            if (i < to && buf[i] == '"') {
+                s = i + 1;
+                int j = s;
+                while (j < to) {
+                    if (buf[j] == '"') {
+                        if (j + 1 < to && buf[j + 1] == '"') { esc = true; j += 2; continue; }
+                        break;
+                    }
+                    j++;
+                }
+                e = j;
+                i = j + 1;
+                while (i < to && buf[i] != ',') i++; // anything between the closing quote and the comma is dropped
+            } else {
+                s = i;
+                while (i < to && buf[i] != ',') i++;
+                e = i;
+            }
+            starts[count] = s; ends[count] = e; escaped[count] = esc;
+            count++;
+            if (i >= to) return;
+            i++; // past the comma; a trailing comma yields a final empty field
+        }
+    }
+
+    /** ASCII view of one field for Money.parse, reused across rows. */
+    private final class Slice implements CharSequence {
+        int from, to;
+        public int length() { return to - from; }
+        public char charAt(int index) { return (char) (buf[from + index] & 0xff); }
+        public CharSequence subSequence(int start, int end) { return new String(buf, from + start, end - start, StandardCharsets.ISO_8859_1); }
+        @Override public String toString() { return new String(buf, from, to - from, StandardCharsets.ISO_8859_1); }
+    }
+}
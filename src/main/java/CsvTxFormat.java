@@ -0,0 +1,143 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * The original transactions.csv layout: one text row per transaction. Legs of a posting carry a ninth field, the
+ * posting's leg count, and rows written for a request with an idempotency key a tenth, its fingerprint; the
+ * header is left as it was, since existing logs keep theirs.
+ */
+class CsvTxFormat implements TxFormat {
+    static final String HEADER = "id,timestamp,accountNumber,type,amount,balanceAfter,details,relatedAccount";
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final TxType[] TX_TYPES = TxType.values();
+
+    private final Path file;
+
+    CsvTxFormat(Path file) { this.file = file; }
+
+    public Path file() { return file; }
+
+    public byte[] header() { return (HEADER + "\n").getBytes(StandardCharsets.UTF_8); }
+
+    public byte[] encode(Transaction t) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(t.getId()).append(',').append(t.getTimestamp().format(DATETIME)).append(',')
+          .append(t.getAccountNumber()).append(',').append(t.getType().name()).append(',');
+        Money.append(sb, t.getAmount()).append(',');
+        Money.append(sb, t.getBalanceAfter()).append(',')
+          .append(CSV.escape(t.getDetails() == null ? "" : t.getDetails())).append(',')
+          .append(t.getRelatedAccount() == null ? "" : t.getRelatedAccount());
+        if (t.getLegs() > 0 || t.getRequestKey() != 0) sb.append(',').append(t.getLegs() > 0 ? Integer.toString(t.getLegs()) : "");
+        if (t.getRequestKey() != 0) sb.append(',').append(t.getRequestKey());
+        return sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void scan(long covered, RowSink sink) throws IOException {
+        long pos = covered < 0 ? 0 : covered;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ch.position(pos);
+            CsvTokenizer row = new CsvTokenizer(Metrics.counted(Channels.newInputStream(ch)), pos);
+            row.next(); // header line, or the already indexed row at 'covered'
+            while (row.next()) {
+                if (row.fieldCount() < 8) continue;
+                sink.row(row.fieldLong(2), row.rowOffset());
+            }
+        }
+    }
+
+    public void forEach(Consumer<Transaction> action) throws IOException {
+        try (InputStream in = Metrics.counted(Files.newInputStream(file))) {
+            CsvTokenizer row = new CsvTokenizer(in, 0);
+            row.next(); // header
+            while (row.next()) if (row.fieldCount() >= 8) action.accept(parse(row));
+        }
+    }
+
+    public void forEachBetween(long from, long to, DecodedSink sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ch.position(from);
+            CsvTokenizer row = new CsvTokenizer(Metrics.counted(Channels.newInputStream(ch)), from);
+            while (row.next() && row.rowOffset() < to) {
+                if (row.fieldCount() >= 8 && !sink.row(row.rowOffset(), parse(row))) return;
+            }
+        }
+    }
+
+    public void scanArchive(InputStream in, String accountNumber, DecodedSink sink) throws IOException {
+        CsvTokenizer row = new CsvTokenizer(in, 0);
+        row.next(); // header
+        while (row.next()) {
+            if (row.fieldCount() < 8 || (accountNumber != null && !row.fieldEquals(2, accountNumber))) continue;
+            if (!sink.row(row.rowOffset(), parse(row))) return;
+        }
+    }
+
+    /** Up to and including the last newline. */
+    public long completeLength() throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            for (long end = ch.size(); end > 0; ) {
+                long start = Math.max(0, end - buf.capacity());
+                buf.clear().limit((int) (end - start));
+                while (buf.hasRemaining() && ch.read(buf, start + buf.position()) >= 0) { }
+                for (int i = buf.position() - 1; i >= 0; i--) if (buf.get(i) == '\n') return start + i + 1;
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    public Reader openReader() throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        RowReader rows = new RowReader(ch);
+        return new Reader() {
+            public Transaction read(long offset, String accountNumber) throws IOException {
+                CsvTokenizer row = rows.rowAt(offset);
+                if (row.fieldCount() < 8 || !row.fieldEquals(2, accountNumber)) return null;
+                return parse(row);
+            }
+            public void close() throws IOException { ch.close(); }
+        };
+    }
+
+    private static Transaction parse(CsvTokenizer row) {
+        return new Transaction(row.field(0), row.fieldDateTime(1), row.field(2), row.fieldEnum(3, TX_TYPES),
+                row.fieldMoney(4), row.fieldMoney(5), row.field(6), row.field(7),
+                row.fieldCount() > 8 && !row.fieldEmpty(8) ? (int) row.fieldLong(8) : 0, row.fieldCount() > 9 ? row.fieldLong(9) : 0);
+    }
+
+    /** Positional row reads from the log, reusing one buffer and one tokenizer. */
+    private static final class RowReader {
+        private final FileChannel ch;
+        private final CsvTokenizer tok = new CsvTokenizer();
+        private ByteBuffer buf = ByteBuffer.allocate(512);
+
+        RowReader(FileChannel ch) { this.ch = ch; }
+
+        /** Tokenizes the row starting at {@code pos}; valid until the next call. */
+        CsvTokenizer rowAt(long pos) throws IOException {
+            buf.clear();
+            int scanned = 0;
+            while (true) {
+                int n = ch.read(buf, pos + buf.position());
+                if (n > 0) Metrics.bytesRead.add(n);
+                byte[] a = buf.array();
+                for (int i = scanned; i < buf.position(); i++) {
+                    if (a[i] == '\n') return tok.row(a, 0, i);
+                }
+                scanned = buf.position();
+                if (n < 0) return tok.row(a, 0, buf.position());
+                if (!buf.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                    buf.flip(); bigger.put(buf); buf = bigger;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Per account and day: closing balance plus amount and row count by type, kept in step with the log so that
+ * balance histories and period totals cost O(days) instead of a pass over the account's rows.
+ *
+ * The file is a run of 128-byte records: day records, each a full copy of its day, and after each checkpoint a
+ * commit record with the log position it covers. Loading applies them, then the log rows after the last commit;
+ * rows replayed twice are skipped. The file is compacted when mostly stale and rebuilt from the log if lost.
+ */
+class DailySummaries {
+    private static final int RECORD_LEN = 128;
+    private static final int TYPES = 6; // slots per record; TxType has fewer
+    private static final int KINDS = TxType.values().length; // slots per day in memory
+    private static final long MAGIC = 0x42414E4B53554D31L; // "BANKSUM1"
+    private static final long COMMIT = -1; // account field of a commit record
+    private static final long COMPACT_SLACK = 1 << 16; // stale records tolerated beyond the live ones
+
+    /** Feeds every log row from a logical position on, returning the position just past the last one. */
+    interface LogScan { long rowsFrom(long position, TxFormat.DecodedSink sink) throws IOException; }
+
+    private final Path file;
+    private final String logName; // positions only mean something for the log they were taken from
+    private final Map<String, Days> byAccount = new ConcurrentHashMap<>();
+    private final LongAdder days = new LongAdder(); // live account-days
+    private volatile boolean loaded;
+    private FileChannel out;
+    private long records; // in the file, header included
+
+    /** {@code file} may be null, see the class comment. */
+    DailySummaries(Path file, String logName) { this.file = file; this.logName = logName; }
+
+    /** One account's days, oldest first. Guarded by itself. */
+    private static final class Days {
+        int n;
+        int[] day = new int[4]; // epoch day
+        long[] lastPos = new long[4];
+        long[] closing = new long[4];
+        long[] amount = new long[4 * KINDS];
+        int[] count = new int[4 * KINDS];
+        final BitSet changed = new BitSet(); // days not yet handed to a checkpoint
+
+        int indexOf(int epochDay) {
+            if (n > 0 && day[n - 1] == epochDay) return n - 1; // nearly every row is for the latest day
+            return Arrays.binarySearch(day, 0, n, epochDay);
+        }
+
+        int insert(int at, int epochDay) {
+            if (n == day.length) {
+                int cap = n * 2;
+                day = Arrays.copyOf(day, cap); lastPos = Arrays.copyOf(lastPos, cap); closing = Arrays.copyOf(closing, cap);
+                amount = Arrays.copyOf(amount, cap * KINDS); count = Arrays.copyOf(count, cap * KINDS);
+            }
+            if (at < n) { // a day before the latest: only when the clock went back
+                System.arraycopy(day, at, day, at + 1, n - at);
+                System.arraycopy(lastPos, at, lastPos, at + 1, n - at);
+                System.arraycopy(closing, at, closing, at + 1, n - at);
+                System.arraycopy(amount, at * KINDS, amount, (at + 1) * KINDS, (n - at) * KINDS);
+                System.arraycopy(count, at * KINDS, count, (at + 1) * KINDS, (n - at) * KINDS);
+                for (int i = n - 1; i >= at; i--) changed.set(i + 1, changed.get(i));
+                changed.clear(at);
+            }
+            day[at] = epochDay;
+            lastPos[at] = -1;
+            closing[at] = 0;
+            Arrays.fill(amount, at * KINDS, (at + 1) * KINDS, 0);
+            Arrays.fill(count, at * KINDS, (at + 1) * KINDS, 0);
+            n++;
+            return at;
+        }
+
+        DailySummary summary(String accountNumber, int i) {
+            return new DailySummary(accountNumber, LocalDate.ofEpochDay(day[i]), lastPos[i], closing[i],
+                    Arrays.copyOfRange(amount, i * KINDS, (i + 1) * KINDS),
+                    Arrays.copyOfRange(count, i * KINDS, (i + 1) * KINDS));
+        }
+    }
+
+    /**
+     * Reads the file and catches up with the log, once; the first append and every query call this. Appenders
+     * wait here until it is done, so the catch-up scan sees every row not applied by {@link #apply}.
+     */
+    void ensureLoaded(LogScan log, Runnable syncLog) throws IOException {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            long start = System.nanoTime();
+            byAccount.clear();
+            days.reset();
+            long watermark = file == null ? -1 : read();
+            long[] rows = {0};
+            long end = log.rowsFrom(Math.max(0, watermark), (pos, t) -> {
+                add(t, pos);
+                rows[0]++;
+                return true;
+            });
+            loaded = true;
+            if (file == null) return;
+            if (watermark < 0) {
+                if (rows[0] > 0) {
+                    double ms = (System.nanoTime() - start) / 1e6;
+                    Metrics.log.info(() -> String.format(Locale.US, "Built daily summaries from %d transaction rows in %.1f ms", rows[0], ms));
+                }
+                rewrite(end, syncLog);
+            } else if (records > 2 * days.sum() + COMPACT_SLACK) {
+                rewrite(end, syncLog);
+            } else if (rows[0] > 0) {
+                List<DailySummary> caughtUp = new ArrayList<>();
+                for (String acc : byAccount.keySet()) takeChanges(acc, caughtUp);
+                commit(caughtUp, end);
+            }
+        }
+    }
+
+    boolean isLoaded() { return loaded; }
+
+    /** Forgets what is in memory; the next {@link #ensureLoaded} reads the file and the log again. */
+    synchronized void invalidate() { loaded = false; }
+
+    /** Counts a row just appended at {@code position}; rows appended before loading are found by its catch-up. */
+    void apply(Transaction t, long position) { if (loaded) add(t, position); }
+
+    private void add(Transaction t, long position) {
+        Days d = byAccount.computeIfAbsent(t.getAccountNumber(), k -> new Days());
+        int epochDay = (int) t.getTimestamp().toLocalDate().toEpochDay();
+        synchronized (d) {
+            int i = d.indexOf(epochDay);
+            if (i < 0) { i = d.insert(-i - 1, epochDay); days.increment(); }
+            if (position <= d.lastPos[i]) return;
+            d.lastPos[i] = position;
+            d.closing[i] = t.getBalanceAfter();
+            d.amount[i * KINDS + t.getType().ordinal()] += t.getAmount();
+            d.count[i * KINDS + t.getType().ordinal()]++;
+            d.changed.set(i);
+        }
+    }
+
+    /** Moves the account's days changed since the last call into {@code into}. */
+    void takeChanges(String accountNumber, List<DailySummary> into) {
+        Days d = byAccount.get(accountNumber);
+        if (d == null) return;
+        synchronized (d) {
+            for (int i = d.changed.nextSetBit(0); i >= 0; i = d.changed.nextSetBit(i + 1)) into.add(d.summary(accountNumber, i));
+            d.changed.clear();
+        }
+    }
+
+    /** Marks days taken by {@link #takeChanges} as changed again, after their checkpoint failed. */
+    void restoreChanges(List<DailySummary> taken) {
+        for (DailySummary s : taken) {
+            Days d = byAccount.get(s.accountNumber);
+            if (d == null) continue;
+            synchronized (d) {
+                int i = d.indexOf((int) s.day.toEpochDay());
+                if (i >= 0) d.changed.set(i);
+            }
+        }
+    }
+
+    /**
+     * Appends {@code batch} and a commit record saying every log row before {@code watermark} is included, then
+     * rewrites the file if stale copies have taken it over. The caller has synced the log up to the batch.
+     */
+    synchronized void commit(List<DailySummary> batch, long watermark, Runnable syncLog) throws IOException {
+        commit(batch, watermark);
+        if (records > 2 * days.sum() + COMPACT_SLACK) rewrite(watermark, syncLog);
+    }
+
+    private void commit(List<DailySummary> batch, long watermark) throws IOException {
+        if (!loaded || batch.isEmpty()) return;
+        ByteBuffer buf = ByteBuffer.allocate((batch.size() + 1) * RECORD_LEN);
+        for (DailySummary s : batch) encode(buf, s);
+        encodeCommit(buf, watermark);
+        buf.flip();
+        if (out == null) out = FileChannel.open(file, StandardOpenOption.WRITE);
+        long at = records * RECORD_LEN;
+        while (buf.hasRemaining()) at += out.write(buf, at);
+        out.force(false);
+        records += batch.size() + 1;
+    }
+
+    /**
+     * Writes every day in memory to a new file. Days may include rows after {@code watermark} (harmless, see the
+     * class comment), but only rows already in the log: {@code syncLog} runs before the new file replaces the old.
+     */
+    private void rewrite(long watermark, Runnable syncLog) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 1;
+        try (OutputStream o = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_LEN);
+            encodeHeader(buf);
+            o.write(buf.array());
+            List<DailySummary> one = new ArrayList<>();
+            for (Map.Entry<String, Days> e : byAccount.entrySet()) {
+                Days d = e.getValue();
+                synchronized (d) {
+                    for (int i = 0; i < d.n; i++) one.add(d.summary(e.getKey(), i));
+                }
+                for (DailySummary s : one) {
+                    buf.clear();
+                    encode(buf, s);
+                    o.write(buf.array());
+                }
+                written += one.size();
+                one.clear();
+            }
+            buf.clear();
+            encodeCommit(buf, watermark);
+            o.write(buf.array());
+            written++;
+        }
+        syncLog.run();
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) { ch.force(false); }
+        if (out != null) { out.close(); out = null; }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = written;
+    }
+
+    /** Loads the records into memory and returns the last commit's watermark, or -1 if the log must be read from the start. */
+    private long read() throws IOException {
+        records = 0;
+        if (!Files.exists(file)) return -1;
+        long watermark = -1, valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            byte[] rec = new byte[RECORD_LEN];
+            ByteBuffer b = ByteBuffer.wrap(rec);
+            if (!readRecord(in, rec) || b.getLong(0) != MAGIC || !logName.equals(headerLog(b))) return -1;
+            valid = 1;
+            while (readRecord(in, rec)) {
+                if (b.getLong(0) == COMMIT) watermark = b.getLong(16);
+                else put(b);
+                valid++;
+            }
+        }
+        if (watermark < 0) { // nothing committed: start over
+            byAccount.clear();
+            days.reset();
+            return -1;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) { ch.truncate(valid * RECORD_LEN); } // a torn last record
+        records = valid;
+        return watermark;
+    }
+
+    /** Reads one whole record with a good checksum. */
+    private static boolean readRecord(InputStream in, byte[] rec) throws IOException {
+        int n = in.readNBytes(rec, 0, RECORD_LEN);
+        if (n < RECORD_LEN) return false;
+        CRC32 crc = new CRC32();
+        crc.update(rec, 0, RECORD_LEN - 4);
+        return (int) crc.getValue() == ByteBuffer.wrap(rec).getInt(RECORD_LEN - 4);
+    }
+
+    /** Replaces the day with the copy in record {@code b}. */
+    private void put(ByteBuffer b) {
+        Days d = byAccount.computeIfAbsent(Long.toString(b.getLong(0)), k -> new Days());
+        int i = d.indexOf(b.getInt(8));
+        if (i < 0) { i = d.insert(-i - 1, b.getInt(8)); days.increment(); }
+        d.lastPos[i] = b.getLong(16);
+        d.closing[i] = b.getLong(24);
+        for (int t = 0; t < KINDS; t++) {
+            d.amount[i * KINDS + t] = b.getLong(32 + t * 8);
+            d.count[i * KINDS + t] = b.getInt(80 + t * 4);
+        }
+    }
+
+    // Day record: account, epoch day, last position, closing, amounts[TYPES], counts[TYPES], ..., CRC32 of the rest
+    private static void encode(ByteBuffer buf, DailySummary s) {
+        int at = buf.position();
+        buf.putLong(at, Long.parseLong(s.accountNumber)).putInt(at + 8, (int) s.day.toEpochDay())
+           .putLong(at + 16, s.lastPosition).putLong(at + 24, s.closing);
+        for (TxType t : TxType.values()) {
+            buf.putLong(at + 32 + t.ordinal() * 8, s.amount(t));
+            buf.putInt(at + 80 + t.ordinal() * 4, s.count(t));
+        }
+        seal(buf, at);
+    }
+
+    private static void encodeCommit(ByteBuffer buf, long watermark) {
+        int at = buf.position();
+        buf.putLong(at, COMMIT).putLong(at + 16, watermark);
+        seal(buf, at);
+    }
+
+    private void encodeHeader(ByteBuffer buf) {
+        int at = buf.position();
+        byte[] name = logName.getBytes(StandardCharsets.UTF_8);
+        buf.putLong(at, MAGIC).putShort(at + 8, (short) name.length);
+        for (int i = 0; i < name.length; i++) buf.put(at + 10 + i, name[i]);
+        seal(buf, at);
+    }
+
+    private static String headerLog(ByteBuffer b) {
+        int len = b.getShort(8);
+        return len < 0 || len > RECORD_LEN - 14 ? "" : new String(b.array(), 10, len, StandardCharsets.UTF_8);
+    }
+
+    private static void seal(ByteBuffer buf, int at) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), at, RECORD_LEN - 4);
+        buf.putInt(at + RECORD_LEN - 4, (int) crc.getValue());
+        buf.position(at + RECORD_LEN);
+    }
+
+    /** Copies of the account's days from {@code from} through {@code to}, oldest first; null bounds are open. */
+    List<DailySummary> between(String accountNumber, LocalDate from, LocalDate to) {
+        Days d = byAccount.get(accountNumber);
+        if (d == null) return new ArrayList<>();
+        synchronized (d) {
+            int lo = from == null ? 0 : ceiling(d, (int) from.toEpochDay());
+            int hi = to == null ? d.n : ceiling(d, (int) to.toEpochDay() + 1);
+            List<DailySummary> list = new ArrayList<>(Math.max(0, hi - lo));
+            for (int i = lo; i < hi; i++) list.add(d.summary(accountNumber, i));
+            return list;
+        }
+    }
+
+    /**
+     * The balance at the start of {@code day}: the closing balance of the last earlier day with rows, else the
+     * opening balance of the first later one; null if the account has no rows at all.
+     */
+    Long balanceAtStartOf(String accountNumber, LocalDate day) {
+        Days d = byAccount.get(accountNumber);
+        if (d == null) return null;
+        synchronized (d) {
+            if (d.n == 0) return null;
+            int i = ceiling(d, (int) day.toEpochDay());
+            return i > 0 ? d.closing[i - 1] : d.summary(accountNumber, 0).opening();
+        }
+    }
+
+    private static int ceiling(Days d, int epochDay) {
+        int i = Arrays.binarySearch(d.day, 0, d.n, epochDay);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) { out.close(); out = null; }
+    }
+}
@@ -0,0 +1,34 @@
+import java.time.*;
+
+/** One account's activity over a day (or, from {@link Bank#periodSummary}, a longer period). */
+final class DailySummary {
+    final String accountNumber;
+    final LocalDate day;      // the last day covered
+    final long lastPosition;  // log position of the last row counted, so a replayed row is not counted twice
+    final long closing;       // paise, after the last row
+    private final long[] amounts; // paise, by TxType ordinal
+    private final int[] counts;   // rows, by TxType ordinal
+
+    DailySummary(String accountNumber, LocalDate day, long lastPosition, long closing, long[] amounts, int[] counts) {
+        this.accountNumber = accountNumber; this.day = day; this.lastPosition = lastPosition; this.closing = closing;
+        this.amounts = amounts; this.counts = counts;
+    }
+
+    long amount(TxType t) { return amounts[t.ordinal()]; }
+    int count(TxType t) { return counts[t.ordinal()]; }
+
+    long inflow() {
+        long sum = 0;
+        for (TxType t : TxType.values()) if (t.isCredit()) sum += amounts[t.ordinal()];
+        return sum;
+    }
+
+    long outflow() {
+        long sum = 0;
+        for (TxType t : TxType.values()) if (!t.isCredit()) sum += amounts[t.ordinal()];
+        return sum;
+    }
+
+    /** Balance before the first row. */
+    long opening() { return closing - inflow() + outflow(); }
+}
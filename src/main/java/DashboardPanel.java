@@ -0,0 +1,494 @@
+import javax.swing.*;
+import javax.swing.table.JTableHeader;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.FlowLayout;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.GridLayout;
+import java.awt.Insets;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+class DashboardPanel extends JPanel {
+    private final AppFrame app;
+    private final AsyncBank bank;
+    private final Account acc;
+    private int busy; // bank calls in flight
+    private String status = "Ready"; // shown in lblStatus whenever nothing is in flight
+
+    private final JLabel lblWelcome = new JLabel();
+    private final JLabel lblBalance = new JLabel();
+    private final JLabel lblMonth = new JLabel();
+    private final BalanceChart chart = new BalanceChart();
+    private final JLabel lblStatus = new JLabel("Ready");
+
+    private final StatementTableModel txModel;
+
+    DashboardPanel(AppFrame app, AsyncBank bank, Account acc) {
+        this.app = app; this.bank = bank; this.acc = acc;
+        this.txModel = new StatementTableModel(bank, this::error);
+        setLayout(new BorderLayout());
+
+        // Header panel with logo and welcome
+        JPanel header = new JPanel(new BorderLayout());
+        header.setBackground(BankAppGUI.PRIMARY_BLUE);
+        header.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        JLabel logo = new JLabel("🏦 Online Banking System", SwingConstants.CENTER);
+        logo.setFont(BankAppGUI.TITLE_FONT);
+        logo.setForeground(Color.WHITE);
+        header.add(logo, BorderLayout.CENTER);
+        add(header, BorderLayout.NORTH);
+
+        // Top bar with user info and logout
+        JPanel top = new JPanel(new BorderLayout());
+        top.setBorder(BorderFactory.createEmptyBorder(8, 12, 8, 12));
+        lblWelcome.setText("Hello, " + acc.getFullName() + " (Acc: " + acc.getAccountNumber() + ")");
+        lblWelcome.setFont(BankAppGUI.HEADER_FONT);
+        lblWelcome.setForeground(BankAppGUI.PRIMARY_BLUE);
+        JButton btnLogout = new JButton("🚪 Logout");
+        btnLogout.setToolTipText("Logout and return to login screen");
+        btnLogout.setFont(BankAppGUI.BODY_FONT);
+        addHoverEffect(btnLogout);
+        btnLogout.addActionListener(e -> app.logout());
+        top.add(lblWelcome, BorderLayout.WEST);
+        top.add(btnLogout, BorderLayout.EAST);
+
+        // Status bar
+        JPanel statusBar = new JPanel(new BorderLayout());
+        statusBar.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        lblStatus.setFont(BankAppGUI.BODY_FONT);
+        statusBar.add(lblStatus, BorderLayout.WEST);
+
+        // Main content
+        JPanel main = new JPanel(new BorderLayout());
+        main.add(top, BorderLayout.NORTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.setFont(BankAppGUI.BODY_FONT);
+        tabs.addTab("📊 Overview", overviewPanel());
+        tabs.addTab("💰 Deposit / Withdraw", cashPanel());
+        tabs.addTab("🔄 Transfer", transferPanel());
+        tabs.addTab("📜 Statements", statementPanel());
+        tabs.addTab("⚙️ Settings", settingsPanel());
+        main.add(tabs, BorderLayout.CENTER);
+
+        // Hidden diagnostics tab, toggled with Ctrl+Shift+D
+        DiagnosticsPanel diagnostics = new DiagnosticsPanel(bank);
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_D, InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK), "diagnostics");
+        getActionMap().put("diagnostics", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                int i = tabs.indexOfComponent(diagnostics);
+                if (i >= 0) { tabs.removeTabAt(i); return; }
+                tabs.addTab("🩺 Diagnostics", diagnostics);
+                tabs.setSelectedComponent(diagnostics);
+            }
+        });
+
+        add(main, BorderLayout.CENTER);
+        add(statusBar, BorderLayout.SOUTH);
+
+        refreshBalance();
+        loadMiniStatement();
+    }
+
+    private JPanel overviewPanel() {
+        JPanel p = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(8, 8, 8, 8);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel head = new JLabel("📊 Account Overview");
+        head.setFont(BankAppGUI.HEADER_FONT);
+        head.setForeground(BankAppGUI.PRIMARY_BLUE);
+        c.gridx = 0; c.gridy = 0; c.gridwidth = 2; p.add(head, c);
+
+        c.gridwidth = 1;
+        JLabel lBal = new JLabel("💰 Current Balance:");
+        lBal.setFont(BankAppGUI.BODY_FONT);
+        lblBalance.setFont(BankAppGUI.HEADER_FONT);
+        lblBalance.setForeground(BankAppGUI.DARK_BLUE);
+        c.gridy = 1; c.gridx = 0; p.add(lBal, c); c.gridx = 1; p.add(lblBalance, c);
+
+        JButton btnInterest = new JButton("💸 Apply Interest");
+        btnInterest.setToolTipText("Apply accrued interest from last application");
+        btnInterest.setFont(BankAppGUI.BODY_FONT);
+        JButton btnRefresh = new JButton("🔄 Refresh");
+        btnRefresh.setToolTipText("Refresh balance and statements");
+        btnRefresh.setFont(BankAppGUI.BODY_FONT);
+        c.gridy = 2; c.gridx = 0; p.add(btnInterest, c); c.gridx = 1; p.add(btnRefresh, c);
+
+        JLabel lMonth = new JLabel("📈 This Month:");
+        lMonth.setFont(BankAppGUI.BODY_FONT);
+        lblMonth.setFont(BankAppGUI.BODY_FONT);
+        c.gridy = 3; c.gridx = 0; p.add(lMonth, c); c.gridx = 1; p.add(lblMonth, c);
+        chart.setToolTipText("Closing balance of each of the last " + BalanceChart.DAYS + " days");
+        c.gridy = 4; c.gridx = 0; c.gridwidth = 2; p.add(chart, c);
+        c.gridwidth = 1;
+
+        // Add hover effects
+        addHoverEffect(btnInterest);
+        addHoverEffect(btnRefresh);
+
+        btnRefresh.addActionListener(e -> {
+            refreshBalance();
+            loadMiniStatement();
+            setStatus("Data refreshed");
+        });
+        btnInterest.addActionListener(e -> submit("Applying interest…", key -> bank.applyInterest(acc, key), added -> {
+            JOptionPane.showMessageDialog(this, "Interest added: ₹" + fmt(added));
+            setStatus("Interest applied");
+        }));
+
+        return p;
+    }
+
+    private JPanel cashPanel() {
+        JPanel p = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(8, 8, 8, 8);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel lDep = new JLabel("💰 Deposit Amount (₹)");
+        lDep.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfDep = new JTextField(10);
+        tfDep.setToolTipText("Enter the amount to deposit");
+        tfDep.setFont(BankAppGUI.BODY_FONT);
+        JButton btnDep = new JButton("➕ Deposit");
+        btnDep.setToolTipText("Deposit money into your account");
+        btnDep.setFont(BankAppGUI.BODY_FONT);
+
+        JLabel lW = new JLabel("💸 Withdraw Amount (₹)");
+        lW.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfW = new JTextField(10);
+        tfW.setToolTipText("Enter the amount to withdraw");
+        tfW.setFont(BankAppGUI.BODY_FONT);
+        JButton btnW = new JButton("➖ Withdraw");
+        btnW.setToolTipText("Withdraw money from your account");
+        btnW.setFont(BankAppGUI.BODY_FONT);
+
+        int r = 0;
+        c.gridy = r; c.gridx = 0; p.add(lDep, c); c.gridx = 1; p.add(tfDep, c); c.gridx = 2; p.add(btnDep, c);
+        r++; c.gridy = r; c.gridx = 0; p.add(lW, c); c.gridx = 1; p.add(tfW, c); c.gridx = 2; p.add(btnW, c);
+
+        // Add hover effects
+        addHoverEffect(btnDep);
+        addHoverEffect(btnW);
+
+        btnDep.addActionListener(e -> {
+            long amt;
+            try { amt = parsePositive(tfDep.getText()); }
+            catch (Exception ex) { error(ex.getMessage()); return; }
+            int confirm = JOptionPane.showConfirmDialog(this, "Confirm deposit of ₹" + fmt(amt) + "?", "Confirm Deposit", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            submit("Depositing…", key -> bank.deposit(acc, amt, key), v -> {
+                info("Deposited ₹" + fmt(amt));
+                setStatus("Deposit successful");
+                tfDep.setText("");
+            });
+        });
+        btnW.addActionListener(e -> {
+            long amt;
+            try { amt = parsePositive(tfW.getText()); }
+            catch (Exception ex) { error(ex.getMessage()); return; }
+            int confirm = JOptionPane.showConfirmDialog(this, "Confirm withdrawal of ₹" + fmt(amt) + "?", "Confirm Withdrawal", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            submit("Withdrawing…", key -> bank.withdraw(acc, amt, key), v -> {
+                info("Withdrew ₹" + fmt(amt));
+                setStatus("Withdrawal successful");
+                tfW.setText("");
+            });
+        });
+
+        return p;
+    }
+
+    private JPanel transferPanel() {
+        JPanel p = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(8, 8, 8, 8);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel lTo = new JLabel("👤 To Username");
+        lTo.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfTo = new JTextField(16);
+        tfTo.setToolTipText("Enter the username of the recipient");
+        tfTo.setFont(BankAppGUI.BODY_FONT);
+        JLabel lAmt = new JLabel("💸 Amount (₹)");
+        lAmt.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfAmt = new JTextField(10);
+        tfAmt.setToolTipText("Enter the amount to transfer");
+        tfAmt.setFont(BankAppGUI.BODY_FONT);
+        JButton btn = new JButton("🔄 Transfer");
+        btn.setToolTipText("Transfer money to another account");
+        btn.setFont(BankAppGUI.BODY_FONT);
+
+        c.gridy = 0; c.gridx = 0; p.add(lTo, c); c.gridx = 1; p.add(tfTo, c);
+        c.gridy = 1; c.gridx = 0; p.add(lAmt, c); c.gridx = 1; p.add(tfAmt, c);
+        c.gridy = 2; c.gridx = 0; c.gridwidth = 2; p.add(btn, c);
+
+        // Add hover effects
+        addHoverEffect(btn);
+
+        btn.addActionListener(e -> {
+            String to = tfTo.getText().trim();
+            long amt;
+            try { amt = parsePositive(tfAmt.getText()); }
+            catch (Exception ex) { error(ex.getMessage()); return; }
+            int confirm = JOptionPane.showConfirmDialog(this, "Confirm transfer of ₹" + fmt(amt) + " to " + to + "?", "Confirm Transfer", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            submit("Transferring…", key -> bank.transfer(acc, to, amt, key), v -> {
+                info("Transferred ₹" + fmt(amt) + " to " + to);
+                setStatus("Transfer successful");
+                tfTo.setText("");
+                tfAmt.setText("");
+            });
+        });
+
+        return p;
+    }
+
+    private JPanel statementPanel() {
+        JPanel p = new JPanel(new BorderLayout());
+        JTable table = new JTable(txModel);
+        table.setFillsViewportHeight(true);
+        table.setFont(BankAppGUI.BODY_FONT);
+        table.setRowHeight(25);
+        JTableHeader header = table.getTableHeader();
+        header.setFont(BankAppGUI.HEADER_FONT);
+        header.setBackground(BankAppGUI.LIGHT_BLUE);
+        header.setForeground(BankAppGUI.DARK_BLUE);
+        p.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JButton btnMini = new JButton("📄 Mini Statement (Last 5)");
+        btnMini.setToolTipText("View the last 5 transactions");
+        btnMini.setFont(BankAppGUI.BODY_FONT);
+        JButton btnFull = new JButton("📋 Full Statement");
+        btnFull.setToolTipText("View all transactions");
+        btnFull.setFont(BankAppGUI.BODY_FONT);
+        actions.add(btnMini); actions.add(btnFull);
+
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JTextField tfFrom = new JTextField(9);
+        tfFrom.setToolTipText("First date, yyyy-MM-dd (blank: no limit)");
+        JTextField tfTo = new JTextField(9);
+        tfTo.setToolTipText("Last date, yyyy-MM-dd (blank: no limit)");
+        JComboBox<Object> cbType = new JComboBox<>();
+        cbType.addItem("All types");
+        for (TxType t : TxType.values()) cbType.addItem(t);
+        JTextField tfMin = new JTextField(7);
+        tfMin.setToolTipText("Smallest amount (blank: no limit)");
+        JTextField tfMax = new JTextField(7);
+        tfMax.setToolTipText("Largest amount (blank: no limit)");
+        JButton btnSearch = new JButton("🔍 Search");
+        btnSearch.setToolTipText("View the transactions matching these filters");
+        for (JComponent c : new JComponent[]{tfFrom, tfTo, cbType, tfMin, tfMax, btnSearch}) c.setFont(BankAppGUI.BODY_FONT);
+        filters.add(new JLabel("From")); filters.add(tfFrom);
+        filters.add(new JLabel("To")); filters.add(tfTo);
+        filters.add(cbType);
+        filters.add(new JLabel("Amount")); filters.add(tfMin);
+        filters.add(new JLabel("–")); filters.add(tfMax);
+        filters.add(btnSearch);
+
+        JPanel north = new JPanel(new GridLayout(2, 1));
+        north.add(actions);
+        north.add(filters);
+        p.add(north, BorderLayout.NORTH);
+
+        // Add hover effects
+        addHoverEffect(btnMini);
+        addHoverEffect(btnFull);
+        addHoverEffect(btnSearch);
+
+        btnMini.addActionListener(e -> loadMiniStatement());
+        btnFull.addActionListener(e -> loadStatement(StatementQuery.all(acc.getAccountNumber())));
+        btnSearch.addActionListener(e -> {
+            StatementQuery q;
+            try {
+                Object type = cbType.getSelectedItem();
+                q = new StatementQuery(acc.getAccountNumber(), parseDate(tfFrom.getText()), parseDate(tfTo.getText()),
+                        type instanceof TxType ? EnumSet.of((TxType) type) : EnumSet.noneOf(TxType.class),
+                        tfMin.getText().isBlank() ? 0 : parseAmount(tfMin.getText()),
+                        tfMax.getText().isBlank() ? Long.MAX_VALUE : parseAmount(tfMax.getText()));
+            } catch (IllegalArgumentException ex) { error(ex.getMessage()); return; }
+            loadStatement(q);
+        });
+        return p;
+    }
+
+    private JPanel settingsPanel() {
+        JPanel p = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(8, 8, 8, 8);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel l1 = new JLabel("🔒 Current Password");
+        l1.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField p1 = new JPasswordField(16);
+        p1.setToolTipText("Enter your current password");
+        p1.setFont(BankAppGUI.BODY_FONT);
+        JLabel l2 = new JLabel("🔑 New Password (min 6)");
+        l2.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField p2 = new JPasswordField(16);
+        p2.setToolTipText("Enter a new password with at least 6 characters");
+        p2.setFont(BankAppGUI.BODY_FONT);
+        JLabel l3 = new JLabel("🔒 Confirm New Password");
+        l3.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField p3 = new JPasswordField(16);
+        p3.setToolTipText("Re-enter the new password to confirm");
+        p3.setFont(BankAppGUI.BODY_FONT);
+        JButton btn = new JButton("🔄 Change Password");
+        btn.setToolTipText("Change your account password");
+        btn.setFont(BankAppGUI.BODY_FONT);
+
+        c.gridy = 0; c.gridx = 0; p.add(l1, c); c.gridx = 1; p.add(p1, c);
+        c.gridy = 1; c.gridx = 0; p.add(l2, c); c.gridx = 1; p.add(p2, c);
+        c.gridy = 2; c.gridx = 0; p.add(l3, c); c.gridx = 1; p.add(p3, c);
+        c.gridy = 3; c.gridx = 0; c.gridwidth = 2; p.add(btn, c);
+
+        // Add hover effects
+        addHoverEffect(btn);
+
+        btn.addActionListener((ActionEvent e) -> {
+            String cur = new String(p1.getPassword());
+            String n1 = new String(p2.getPassword());
+            String n2 = new String(p3.getPassword());
+            run("Checking password…", bank.checkPassword(acc, cur), ok -> {
+                if (!ok) { error("Current password is incorrect."); return; }
+                if (!Validators.password(n1)) { error("New password too weak (min 6)."); return; }
+                if (!n1.equals(n2)) { error("Passwords do not match."); return; }
+                int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to change your password?", "Confirm Password Change", JOptionPane.YES_NO_OPTION);
+                if (confirm != JOptionPane.YES_OPTION) return;
+                submit("Changing password…", key -> bank.changePassword(acc, n1, key), v -> {
+                    info("Password changed successfully.");
+                    setStatus("Password changed");
+                    p1.setText(""); p2.setText(""); p3.setText("");
+                });
+            });
+        });
+
+        return p;
+    }
+
+    private void refreshBalance() {
+        run("Refreshing balance…", bank.refreshBalance(acc), bal -> lblBalance.setText("₹" + fmt(bal)));
+        LocalDate today = LocalDate.now();
+        run("Loading balance history…", bank.periodSummary(acc.getAccountNumber(), today.withDayOfMonth(1), today),
+                m -> lblMonth.setText("In ₹" + fmt(m.inflow()) + "  ·  Out ₹" + fmt(m.outflow())));
+        run("Loading balance history…", bank.getDailyClosingBalances(acc.getAccountNumber(), today.minusDays(BalanceChart.DAYS - 1), today),
+                chart::setBalances);
+    }
+
+    private void loadMiniStatement() {
+        run("Loading mini statement…", bank.getMiniStatement(acc.getAccountNumber(), 5), txModel::showRows);
+    }
+
+    private void loadStatement(StatementQuery q) {
+        run("Loading statement…", bank.outlineStatement(q, StatementTableModel.PAGE_SIZE), outline -> {
+            txModel.showQuery(q, outline);
+            setStatus("Showing " + outline.rows + " transaction(s)");
+        });
+    }
+
+    /** Runs a bank call off the EDT, showing a busy indicator in the status bar until it completes. */
+    private <T> void run(String what, CompletableFuture<T> call, Consumer<T> onSuccess) {
+        runThen(what, call, onSuccess, () -> { });
+    }
+
+    private <T> void runThen(String what, CompletableFuture<T> call, Consumer<T> onSuccess, Runnable always) {
+        runThen(what, call, onSuccess, ex -> error(ex.getMessage()), always);
+    }
+
+    private <T> void runThen(String what, CompletableFuture<T> call, Consumer<T> onSuccess, Consumer<Throwable> onFailure, Runnable always) {
+        if (busy++ == 0) setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        lblStatus.setText("⏳ " + what);
+        AsyncBank.onEdt(call, v -> {
+            done();
+            onSuccess.accept(v);
+            always.run();
+        }, ex -> {
+            done();
+            onFailure.accept(ex);
+            always.run();
+        });
+    }
+
+    /**
+     * Runs a change under a new idempotency key, one per confirmed action, then reloads balance and mini statement
+     * whether or not it succeeded.
+     */
+    private <T> void submit(String what, Function<String, CompletableFuture<T>> call, Consumer<T> onSuccess) {
+        submit(what, Ids.newTransactionId(), call, onSuccess);
+    }
+
+    /**
+     * A failure that is not a refusal can be retried under the same key, so a change that went through before
+     * the error is not made twice.
+     */
+    private <T> void submit(String what, String key, Function<String, CompletableFuture<T>> call, Consumer<T> onSuccess) {
+        runThen(what, call.apply(key), onSuccess, ex -> {
+            if (AsyncBank.isRefusal(ex)) { error(ex.getMessage()); return; }
+            int again = JOptionPane.showConfirmDialog(this, ex.getMessage() + "\nTry again?", "Error", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
+            if (again == JOptionPane.YES_OPTION) submit(what, key, call, onSuccess);
+        }, () -> { refreshBalance(); loadMiniStatement(); });
+    }
+
+    private void done() {
+        if (--busy == 0) {
+            setCursor(Cursor.getDefaultCursor());
+            lblStatus.setText(status);
+        }
+    }
+
+    private void setStatus(String s) {
+        status = s;
+        if (busy == 0) lblStatus.setText(s);
+    }
+
+    private static LocalDate parseDate(String s) {
+        if (s.isBlank()) return null;
+        try { return LocalDate.parse(s.trim()); }
+        catch (DateTimeException e) { throw new IllegalArgumentException("Enter dates as yyyy-MM-dd"); }
+    }
+
+    private static long parseAmount(String s) {
+        try { long v = Money.parse(s.trim()); if (v < 0) throw new NumberFormatException(); return v; }
+        catch (Exception e) { throw new IllegalArgumentException("Enter a valid amount"); }
+    }
+
+    private long parsePositive(String s) {
+        try { long v = Money.parse(s.trim()); if (v <= 0) throw new NumberFormatException(); return v; }
+        catch (Exception e) { throw new IllegalArgumentException("Enter a valid positive amount"); }
+    }
+
+    private String fmt(long paise) { return Money.format(paise); }
+    private void info(String m) { JOptionPane.showMessageDialog(this, m, "Info", JOptionPane.INFORMATION_MESSAGE); }
+    private void error(String m) { JOptionPane.showMessageDialog(this, m, "Error", JOptionPane.ERROR_MESSAGE); }
+
+    private void addHoverEffect(JButton button) {
+        button.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                button.setBackground(BankAppGUI.SECONDARY_BLUE);
+                button.setForeground(Color.WHITE);
+            }
+            @Override
+            public void mouseExited(MouseEvent e) {
+                button.setBackground(UIManager.getColor("Button.background"));
+                button.setForeground(UIManager.getColor("Button.foreground"));
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.JTableHeader;
+
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
+
+import java.util.*;
+
+/**
+ * Hidden dashboard tab (Ctrl+Shift+D) showing {@link Metrics} live: calls, errors and p50/p99 latency of every
+ * operation over the last few seconds and since start, plus storage I/O and the log writer's batch stats.
+ * Refreshes every second while it is on screen.
+ */
+class DiagnosticsPanel extends JPanel {
+    private static final int WINDOW = 5; // seconds
+    private static final String[] COLUMNS = {"Operation", "Calls", "Errors", "p50 (" + WINDOW + " s)", "p99 (" + WINDOW + " s)", "p50", "p99", "Max"};
+
+    private final AsyncBank bank;
+    private final ArrayDeque<Metrics.Snapshot> history = new ArrayDeque<>(); // one per second, oldest first
+    private Metrics.Snapshot total = Metrics.snapshot(), recent = total.since(total);
+    private final JLabel lblIo = new JLabel(" ");
+    private final JLabel lblLog = new JLabel(" ");
+    private final Timer timer = new Timer(1000, e -> refresh());
+
+    private final AbstractTableModel model = new AbstractTableModel() {
+        @Override public int getRowCount() { return Metric.values().length; }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+        @Override
+        public Object getValueAt(int r, int c) {
+            Metric m = Metric.values()[r];
+            LatencyHistogram.Snapshot all = total.latency[r], last = recent.latency[r];
+            switch (c) {
+                case 0: return m.label;
+                case 1: return all.count;
+                case 2: return total.errors[r];
+                case 3: return last.count == 0 ? "" : Metrics.duration(last.percentile(0.50));
+                case 4: return last.count == 0 ? "" : Metrics.duration(last.percentile(0.99));
+                case 5: return all.count == 0 ? "" : Metrics.duration(all.percentile(0.50));
+                case 6: return all.count == 0 ? "" : Metrics.duration(all.percentile(0.99));
+                default: return all.count == 0 ? "" : Metrics.duration(all.max);
+            }
+        }
+    };
+
+    DiagnosticsPanel(AsyncBank bank) {
+        this.bank = bank;
+        setLayout(new BorderLayout());
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setFont(BankAppGUI.BODY_FONT);
+        table.setRowHeight(22);
+        table.getColumnModel().getColumn(0).setPreferredWidth(260);
+        JTableHeader header = table.getTableHeader();
+        header.setFont(BankAppGUI.BODY_FONT);
+        header.setBackground(BankAppGUI.LIGHT_BLUE);
+        header.setForeground(BankAppGUI.DARK_BLUE);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel footer = new JPanel(new GridLayout(2, 1));
+        footer.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        lblIo.setFont(BankAppGUI.BODY_FONT);
+        lblLog.setFont(BankAppGUI.BODY_FONT.deriveFont(12f));
+        footer.add(lblIo);
+        footer.add(lblLog);
+        add(footer, BorderLayout.SOUTH);
+        history.addLast(total);
+    }
+
+    @Override public void addNotify() { super.addNotify(); timer.start(); }
+    @Override public void removeNotify() { timer.stop(); super.removeNotify(); }
+
+    private void refresh() {
+        total = Metrics.snapshot();
+        history.addLast(total);
+        while (history.size() > WINDOW + 1) history.removeFirst();
+        recent = total.since(history.peekFirst());
+        model.fireTableRowsUpdated(0, model.getRowCount() - 1);
+        double secs = Math.max(1, recent.nanos) / 1e9;
+        lblIo.setText(String.format(Locale.US, "Read %s (%s/s), written %s (%s/s)", Metrics.bytes(total.bytesRead),
+                Metrics.bytes((long) (recent.bytesRead / secs)), Metrics.bytes(total.bytesWritten), Metrics.bytes((long) (recent.bytesWritten / secs))));
+        AsyncBank.onEdt(bank.transactionLogStats(), s -> {
+            lblLog.setText("Log writer: " + s);
+            lblLog.setToolTipText(s);
+        }, ex -> lblLog.setText("Log writer: " + ex.getMessage()));
+    }
+}
@@ -0,0 +1,855 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+import java.util.stream.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The file engine: account records in bank_data/accounts.csv and the transaction log in bank_data/transactions.csv
+ * or, with the binary layout, transactions.bin, along with the log's index, segments, daily summaries and
+ * checkpoint.
+ */
+class FileStorage implements Storage {
+    private final Path dataDir;
+    private final Path accountsCsv;
+    private final Path checkpointFile; // "<log file name> <offset> <keys from>": accounts.csv includes every row before offset,
+                                       // and the idempotency keys still remembered were all written from logical position 'keys from' on
+    private final TxFormat txFormat; // layout of the transaction log: CSV (default) or binary journal
+    static final String ACCOUNTS_HEADER = "accountNumber,username,passwordHash,fullName,balance,lastInterestApplied,createdAt";
+
+    // Every line of accounts.csv (header included) is space-padded to this many bytes,
+    // so a single account can be rewritten in place at (slot + 1) * ACCOUNT_RECORD_LEN.
+    static final int ACCOUNT_RECORD_LEN = 256;
+    private final Map<String, Integer> accountSlots = new ConcurrentHashMap<>(); // filled by parallel load tasks
+    private static final int LOAD_CHUNK_RECORDS = 1024; // accounts per parallel load/save chunk; 256 KiB buffers stay below G1's humongous size
+    private static final int PARALLEL_ENCODE_ROWS = 4096; // appends at least this large encode their rows in parallel
+    private int nextAccountSlot = 0;
+
+    private FileChannel accountsOut; // opened on the first single-record save
+    private final TxIndex txIndex;
+    private volatile TxLogWriter txLog;
+
+    // Archived log segments (see rollJournal): bank_data/segments/<log file name>.<seq>.{gz,manifest}
+    private final Path segmentDir;
+    private final long segmentMaxBytes; // bank.segment.maxBytes: roll once the live log holds this much
+    private final long segmentMaxDays;  // bank.segment.maxDays: or once its oldest row is this old (0 = never)
+    private List<LogSegment> segments;  // oldest first; read on first use
+    private volatile long archived = -1; // log bytes (headers excluded) in the segments: the live log's logical start
+    private final ReentrantReadWriteLock logLock = new ReentrantReadWriteLock(); // shared by appends and reads, exclusive for a roll
+    private final DailySummaries summaries;
+    private final AccountSequence accountNumbers;
+    private final RequestKeys requestKeys = new RequestKeys();
+    private volatile long requestKeysFrom = -1; // as last recorded in the checkpoint, while the keys are not loaded
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    /** {@code journal} is the transaction log layout: csv or binary. */
+    public FileStorage(Path dataDir, String journal) {
+        this.dataDir = dataDir;
+        this.accountsCsv = dataDir.resolve("accounts.csv");
+        this.checkpointFile = dataDir.resolve("accounts.checkpoint");
+        this.txFormat = TxFormat.inDataDir(dataDir, journal);
+        Path log = txFormat.file();
+        this.txIndex = new TxIndex(log.resolveSibling(log.getFileName().toString().replaceFirst("\\.csv$", "") + ".idx"), txFormat);
+        this.segmentDir = dataDir.resolve("segments");
+        this.segmentMaxBytes = Long.getLong("bank.segment.maxBytes", 256L << 20);
+        this.segmentMaxDays = Long.getLong("bank.segment.maxDays", 0);
+        this.summaries = new DailySummaries(dataDir.resolve("daily_summaries.dat"), log.getFileName().toString());
+        this.accountNumbers = new AccountSequence(dataDir.resolve("account_sequence"));
+    }
+
+    /** The next unused number from the persisted account sequence (see {@link AccountSequence}). */
+    public String newAccountNumber() { return accountNumbers.next(); }
+
+    public void ensureFiles() {
+        try {
+            if (!Files.exists(dataDir)) Files.createDirectories(dataDir);
+            Path ac = accountsCsv;
+            if (!Files.exists(ac)) Files.write(ac, accountRecord(ACCOUNTS_HEADER));
+            Path tx = txFormat.file();
+            if (!Files.exists(tx)) Files.write(tx, txFormat.header());
+        } catch (IOException e) { throw new RuntimeException("Failed to init storage: "+e.getMessage()); }
+    }
+
+    /**
+     * Loads the transaction index now instead of on first use, indexing any log rows it does not cover yet
+     * (all of them if it is missing).
+     */
+    public void openTransactionIndex() {
+        try { txIndex.ensureLoaded(); }
+        catch (IOException e) { throw new RuntimeException("Error indexing transactions: "+e.getMessage()); }
+    }
+
+    /**
+     * Drops a row cut short by a crash from the end of the log and returns the offset of the first row not
+     * covered by the last checkpoint. Without a checkpoint for this log, accounts.csv is taken as current (it
+     * was rewritten on every change before checkpoints existed) and one is recorded at the end of the log.
+     */
+    public long recoverJournal() {
+        try {
+            finishRoll();
+            Path log = txFormat.file();
+            long complete = txFormat.completeLength();
+            if (complete > 0 && complete < Files.size(log)) {
+                try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) { ch.truncate(complete); }
+            }
+            long from = -1;
+            if (Files.exists(checkpointFile)) {
+                String[] f = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim().split(" ");
+                if (f[0].equals(log.getFileName().toString())) {
+                    if (f.length != 3) throw new IOException("malformed " + checkpointFile.getFileName());
+                    from = Long.parseLong(f[1]);
+                    requestKeysFrom = Long.parseLong(f[2]);
+                }
+            }
+            if (from < 0 || from > complete) {
+                from = complete;
+                writeCheckpoint(from);
+            }
+            return from;
+        } catch (IOException | NumberFormatException e) { throw new RuntimeException("Error recovering transaction log: "+e.getMessage()); }
+    }
+
+    /**
+     * Passes every log row from {@code offset} on to {@code action}, in log order; returns how many there were.
+     * A posting whose legs stop short at the end of the log was cut off by a crash, and is truncated away unapplied.
+     */
+    public long replayJournal(long offset, Consumer<Transaction> action) {
+        long[] rows = new long[1];
+        List<Transaction> legs = new ArrayList<>(); // of the posting being read, held back until its last leg
+        long[] legsAt = new long[1];
+        try {
+            txFormat.forEachBetween(offset, Long.MAX_VALUE, (off, t) -> {
+                if (!legs.isEmpty() && !legs.get(0).getId().equals(t.getId())) { // cut short, yet not the last: keep it
+                    rows[0] += legs.size();
+                    legs.forEach(action);
+                    legs.clear();
+                }
+                if (t.getLegs() == 0) {
+                    rows[0]++;
+                    action.accept(t);
+                    return true;
+                }
+                if (legs.isEmpty()) legsAt[0] = off;
+                legs.add(t);
+                if (legs.size() == t.getLegs()) {
+                    rows[0] += legs.size();
+                    legs.forEach(action);
+                    legs.clear();
+                }
+                return true;
+            });
+            if (!legs.isEmpty()) { // a crash wrote only part of the last posting: drop it, as if none was written
+                try (FileChannel ch = FileChannel.open(txFormat.file(), StandardOpenOption.WRITE)) { ch.truncate(legsAt[0]); }
+                txFormat.close(); // the binary journal may have mapped the dropped rows
+                Metrics.log.warning(String.format(Locale.US, "Dropped %d of %d legs of posting %s cut short at the end of the transaction log",
+                        legs.size(), legs.get(0).getLegs(), legs.get(0).getId()));
+            }
+        }
+        catch (IOException e) { throw new RuntimeException("Error replaying transaction log: "+e.getMessage()); }
+        return rows[0];
+    }
+
+    /** Offset just past the last row written to the log so far. */
+    public long journalEnd() {
+        TxLogWriter w = txLog;
+        if (w != null) return w.end();
+        try { return Files.size(txFormat.file()); }
+        catch (IOException e) { throw new RuntimeException("Error reading transaction log: "+e.getMessage()); }
+    }
+
+    /**
+     * Writes the given account records in place and the given daily summaries, syncs the log and both files,
+     * then records that replay may start at {@code journalOffset}. The caller guarantees the records and
+     * summaries include every row before that offset.
+     */
+    public void checkpoint(List<Account> accounts, List<DailySummary> days, long journalOffset) {
+        try {
+            TxLogWriter w = txLog;
+            if (w != null) w.force();
+            synchronized (this) {
+                List<Account> bySlot = new ArrayList<>(accounts);
+                bySlot.sort(Comparator.comparingInt(a -> accountSlots.getOrDefault(a.getAccountNumber(), Integer.MAX_VALUE)));
+                for (Account a : bySlot) writeRecord(a);
+                if (accountsOut == null) accountsOut = FileChannel.open(accountsCsv, StandardOpenOption.WRITE);
+                accountsOut.force(false);
+            }
+            summaries.commit(days, archivedLength() + journalOffset - txFormat.header().length, this::syncLog);
+            writeCheckpoint(journalOffset);
+            if (rollDue(journalOffset)) rollJournal(journalOffset);
+        } catch (IOException e) { throw new RuntimeException("Error writing checkpoint: "+e.getMessage()); }
+    }
+
+    private void syncLog() {
+        TxLogWriter w = txLog;
+        if (w == null) return;
+        try { w.force(); }
+        catch (IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    /** Moves the account's daily summaries changed since the last call into {@code into}, for a checkpoint. */
+    public void takeDailySummaryChanges(String accountNumber, List<DailySummary> into) { summaries.takeChanges(accountNumber, into); }
+
+    /** Hands back summaries taken for a checkpoint that failed. */
+    public void restoreDailySummaryChanges(List<DailySummary> taken) { summaries.restoreChanges(taken); }
+
+    /** The account's daily summaries from {@code from} through {@code to} (null bounds are open), oldest first. */
+    public List<DailySummary> loadDailySummaries(String accountNumber, LocalDate from, LocalDate to) {
+        ensureSummaries();
+        return summaries.between(accountNumber, from, to);
+    }
+
+    /** The balance at the start of {@code day} according to the daily summaries; null if the account has no rows. */
+    public Long balanceAtStartOf(String accountNumber, LocalDate day) {
+        ensureSummaries();
+        return summaries.balanceAtStartOf(accountNumber, day);
+    }
+
+    private void ensureSummaries() {
+        logLock.readLock().lock(); // always before the summaries' monitor, as in appendTransactions
+        try { summaries.ensureLoaded(this::rowsFrom, this::syncLog); }
+        catch (UncheckedIOException e) { throw new RuntimeException("Error loading daily summaries: "+e.getCause().getMessage()); }
+        catch (IOException e) { throw new RuntimeException("Error loading daily summaries: "+e.getMessage()); }
+        finally { logLock.readLock().unlock(); }
+    }
+
+    /** The rows written by the request with this {@link Ids#requestKey} fingerprint, or null if none is remembered. */
+    public Transaction[] findRequest(long key) {
+        if (key == 0) return null;
+        if (!requestKeys.isLoaded()) ensureRequestKeys();
+        return requestKeys.get(key);
+    }
+
+    private static boolean keyed(List<Transaction> txs) {
+        for (Transaction t : txs) if (t.getRequestKey() != 0) return true;
+        return false;
+    }
+
+    private void ensureRequestKeys() {
+        logLock.readLock().lock(); // always before the keys' monitor, as in appendTransactions
+        try {
+            long from = requestKeysFrom;
+            requestKeys.ensureLoaded(from >= 0 ? from : archivedLength(), this::rowsFrom);
+        }
+        catch (UncheckedIOException e) { throw new RuntimeException("Error loading idempotency keys: "+e.getCause().getMessage()); }
+        catch (IOException e) { throw new RuntimeException("Error loading idempotency keys: "+e.getMessage()); }
+        finally { logLock.readLock().unlock(); }
+    }
+
+    /** Feeds every row at logical log position {@code from} or later to the sink, oldest first; returns the end position. */
+    private long rowsFrom(long from, TxFormat.DecodedSink sink) throws IOException {
+        logLock.readLock().lock();
+        try {
+            long header = txFormat.header().length, base = 0;
+            for (LogSegment seg : segments()) {
+                long segBase = base;
+                base += seg.bytes - header;
+                if (from >= base) continue;
+                try (InputStream in = new GZIPInputStream(Metrics.counted(Files.newInputStream(seg.file)), 1 << 16)) {
+                    txFormat.scanArchive(in, null, (off, t) -> {
+                        long pos = segBase + off - header;
+                        return pos < from || sink.row(pos, t);
+                    });
+                }
+            }
+            long liveBase = base, end = journalEnd();
+            txFormat.forEachBetween(Math.max(header, from - base + header), end, (off, t) -> sink.row(liveBase + off - header, t));
+            return base + end - header;
+        } finally { logLock.readLock().unlock(); }
+    }
+
+    /** Logical position of the live log's first row: the log bytes archived into segments, headers excluded. */
+    private long archivedLength() throws IOException {
+        long a = archived;
+        if (a < 0) {
+            long header = txFormat.header().length;
+            a = 0;
+            for (LogSegment seg : segments()) a += seg.bytes - header;
+            archived = a;
+        }
+        return a;
+    }
+
+    private boolean rollDue(long upTo) throws IOException {
+        long header = txFormat.header().length;
+        if (upTo <= header) return false;
+        if (upTo - header >= segmentMaxBytes) return true;
+        if (segmentMaxDays <= 0) return false;
+        LocalDateTime[] oldest = new LocalDateTime[1];
+        txFormat.forEachBetween(header, header + 1, (off, t) -> {
+            oldest[0] = t.getTimestamp();
+            return false;
+        });
+        return oldest[0] != null && oldest[0].isBefore(LocalDateTime.now().minusDays(segmentMaxDays));
+    }
+
+    /**
+     * Moves the log rows before {@code upTo}, all covered by a checkpoint, into a new gzip-compressed segment
+     * and leaves only the rows after it in the live log, so the live log and its index stay small. The segment
+     * and its manifest are written while appends go on; only the cut-over blocks them. The manifest is the
+     * commit point: a crash before it leaves files the next start deletes, a crash after it a cut-over the next
+     * start finishes (see {@link #finishRoll}).
+     */
+    private void rollJournal(long upTo) throws IOException {
+        Path log = txFormat.file();
+        int seq = segments().isEmpty() ? 1 : segments().get(segments().size() - 1).seq + 1;
+        Files.createDirectories(segmentDir);
+        Path data = segmentFile(seq, ".gz");
+        try (FileChannel in = FileChannel.open(log, StandardOpenOption.READ);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(data, StandardOpenOption.CREATE_NEW), 1 << 16)) {
+            InputStream src = Channels.newInputStream(in);
+            byte[] buf = new byte[1 << 16];
+            for (long left = upTo; left > 0; ) {
+                int n = src.read(buf, 0, (int) Math.min(buf.length, left));
+                if (n < 0) throw new EOFException("Transaction log shrank while archiving");
+                out.write(buf, 0, n);
+                left -= n;
+            }
+        }
+        LogSegment segment = LogSegment.summarize(seq, data, upTo, txFormat);
+        try (FileChannel ch = FileChannel.open(data, StandardOpenOption.WRITE)) { ch.force(false); }
+
+        Path next = segmentFile(seq, ".next");
+        logLock.writeLock().lock();
+        try {
+            TxLogWriter w = txLog;
+            if (w != null) { w.close(); txLog = null; }
+            byte[] header = txFormat.header();
+            try (FileChannel in = FileChannel.open(log, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writeFully(out, header, 0);
+                long end = in.size();
+                out.position(header.length);
+                for (long pos = upTo; pos < end; ) pos += in.transferTo(pos, end - pos, out);
+                out.force(false);
+            }
+            segment.writeManifest(segmentFile(seq, ".manifest"));
+            long before = archivedLength();
+            cutOver(next);
+            segments().add(segment);
+            archived = before + segment.bytes - header.length;
+        } finally { logLock.writeLock().unlock(); }
+    }
+
+    /** Replaces the live log with {@code next}, whose rows all come after the last checkpoint. */
+    private void cutOver(Path next) throws IOException {
+        writeCheckpoint(txFormat.header().length); // replaying the whole old log instead is harmless
+        txIndex.delete();
+        txFormat.close();
+        Files.move(next, txFormat.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Completes a roll whose manifest was written, and deletes the leftovers of one that got no further. */
+    private void finishRoll() throws IOException {
+        if (!Files.isDirectory(segmentDir)) return;
+        List<Path> files;
+        try (Stream<Path> list = Files.list(segmentDir)) { files = list.sorted().collect(Collectors.toList()); }
+        String prefix = txFormat.file().getFileName() + ".";
+        for (Path f : files) {
+            String name = f.getFileName().toString();
+            if (!name.startsWith(prefix) || name.endsWith(".manifest")) continue;
+            int seq = Integer.parseInt(name.substring(prefix.length(), name.lastIndexOf('.')));
+            if (!Files.exists(segmentFile(seq, ".manifest"))) Files.delete(f);
+            else if (name.endsWith(".next")) cutOver(f);
+        }
+    }
+
+    private Path segmentFile(int seq, String suffix) {
+        return segmentDir.resolve(String.format(Locale.ROOT, "%s.%06d%s", txFormat.file().getFileName(), seq, suffix));
+    }
+
+    /** Archived segments of this log, oldest first. */
+    private synchronized List<LogSegment> segments() throws IOException {
+        if (segments == null) {
+            List<LogSegment> list = new ArrayList<>();
+            if (Files.isDirectory(segmentDir)) {
+                String prefix = txFormat.file().getFileName() + ".";
+                List<Path> manifests;
+                try (Stream<Path> files = Files.list(segmentDir)) {
+                    manifests = files.filter(f -> f.getFileName().toString().startsWith(prefix) && f.getFileName().toString().endsWith(".manifest"))
+                            .sorted().collect(Collectors.toList());
+                }
+                for (Path m : manifests) {
+                    String name = m.getFileName().toString();
+                    int seq = Integer.parseInt(name.substring(prefix.length(), name.length() - ".manifest".length()));
+                    list.add(LogSegment.readManifest(seq, segmentFile(seq, ".gz"), m));
+                }
+            }
+            segments = list;
+        }
+        return segments;
+    }
+
+    /** Streams the account's rows in [from, to) out of every segment that may hold any; null bounds are open. */
+    private void scanSegments(List<LogSegment> list, String accountNumber, LocalDateTime from, LocalDateTime to, Consumer<Transaction> action) throws IOException {
+        for (LogSegment seg : list) {
+            if (!seg.mightContain(accountNumber) || !seg.overlaps(from, to)) continue;
+            try (InputStream in = new GZIPInputStream(Metrics.counted(Files.newInputStream(seg.file)), 1 << 16)) {
+                txFormat.scanArchive(in, accountNumber, (off, t) -> {
+                    if (inRange(t, from, to)) action.accept(t);
+                    return true;
+                });
+            }
+        }
+    }
+
+    static boolean inRange(Transaction t, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !t.getTimestamp().isBefore(from)) && (to == null || t.getTimestamp().isBefore(to));
+    }
+
+    private void writeCheckpoint(long journalOffset) throws IOException {
+        long position = archivedLength() + journalOffset - txFormat.header().length;
+        long keysFrom = requestKeys.isLoaded() ? requestKeys.from(position)
+                : requestKeysFrom >= 0 ? Math.min(requestKeysFrom, position) : position;
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.write(tmp, (txFormat.file().getFileName() + " " + journalOffset + " " + keysFrom + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Fixed-width files are split into chunks of records parsed in parallel on the common fork/join pool;
+     * {@code progress} gets the fraction of records parsed as chunks finish. Older line-based files are read
+     * sequentially and migrated.
+     */
+    public synchronized List<Account> loadAccounts(DoubleConsumer progress) {
+        long t0 = System.nanoTime();
+        try {
+            accountSlots.clear();
+            try (FileChannel ch = FileChannel.open(accountsCsv, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size >= ACCOUNT_RECORD_LEN && size % ACCOUNT_RECORD_LEN == 0) {
+                    int records = (int) (size / ACCOUNT_RECORD_LEN) - 1;
+                    Account[] slots = new Account[records];
+                    LoadChunk all = new LoadChunk(ch, slots, 0, records, new LongAdder(), progress, new AtomicBoolean());
+                    ForkJoinPool.commonPool().invoke(all);
+                    if (!all.misaligned.get()) {
+                        List<Account> list = new ArrayList<>(records);
+                        for (Account a : slots) if (a != null) list.add(a);
+                        nextAccountSlot = records;
+                        progress.accept(1.0);
+                        return list;
+                    }
+                    accountSlots.clear();
+                }
+            } catch (UncheckedIOException e) {
+                throw new RuntimeException("Error reading accounts: "+e.getCause().getMessage());
+            } catch (IOException e) { throw new RuntimeException("Error reading accounts: "+e.getMessage()); }
+            List<Account> list = loadAccountLines();
+            progress.accept(1.0);
+            return list;
+        } catch (RuntimeException e) { Metric.LOAD_ACCOUNTS.failed(); throw e; }
+        finally { Metric.LOAD_ACCOUNTS.record(t0); }
+    }
+
+    /** Parses records [from, to) of a fixed-width accounts.csv into {@code slots}, splitting until a chunk is small. */
+    private final class LoadChunk extends RecursiveAction {
+        private final FileChannel ch;
+        private final Account[] slots;
+        private final int from, to;
+        private final LongAdder done;
+        private final DoubleConsumer progress;
+        final AtomicBoolean misaligned; // some record does not end in '\n' at the fixed width: not a fixed-width file
+
+        LoadChunk(FileChannel ch, Account[] slots, int from, int to, LongAdder done, DoubleConsumer progress, AtomicBoolean misaligned) {
+            this.ch = ch; this.slots = slots; this.from = from; this.to = to;
+            this.done = done; this.progress = progress; this.misaligned = misaligned;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LOAD_CHUNK_RECORDS) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new LoadChunk(ch, slots, from, mid, done, progress, misaligned),
+                          new LoadChunk(ch, slots, mid, to, done, progress, misaligned));
+                return;
+            }
+            ByteBuffer buf = ByteBuffer.allocate((to - from) * ACCOUNT_RECORD_LEN);
+            long pos = (from + 1L) * ACCOUNT_RECORD_LEN;
+            try {
+                while (buf.hasRemaining()) {
+                    int n = ch.read(buf, pos + buf.position());
+                    if (n < 0) throw new EOFException("accounts.csv shrank while loading");
+                }
+            } catch (IOException e) { throw new UncheckedIOException(e); }
+            Metrics.bytesRead.add(buf.capacity());
+            byte[] a = buf.array();
+            CsvTokenizer row = new CsvTokenizer();
+            for (int slot = from; slot < to && !misaligned.get(); slot++) {
+                int off = (slot - from) * ACCOUNT_RECORD_LEN;
+                if (a[off + ACCOUNT_RECORD_LEN - 1] != '\n') { misaligned.set(true); return; }
+                row.row(a, off, off + ACCOUNT_RECORD_LEN - 1);
+                if (row.fieldCount() < 7) continue; // blank or damaged record
+                Account acc = new Account(row.field(0), row.field(1), row.field(2), row.field(3), row.fieldMoney(4), row.fieldDate(5), row.fieldDate(6));
+                slots[slot] = acc;
+                accountSlots.put(acc.getAccountNumber(), slot);
+            }
+            done.add(to - from);
+            progress.accept(done.sum() / (double) slots.length);
+        }
+    }
+
+    /** Line-by-line read of an accounts.csv written before the fixed-width layout, migrating it once. */
+    private List<Account> loadAccountLines() {
+        List<Account> list = new ArrayList<>();
+        int rawLines = 0;
+        try (InputStream in = Metrics.counted(Files.newInputStream(accountsCsv))) {
+            CsvTokenizer row = new CsvTokenizer(in, 0);
+            while (row.next()) {
+                int slot = rawLines++ - 1;
+                if (slot < 0) continue; // header
+                if (row.fieldCount() < 7) continue; // blank or damaged line
+                String accNo = row.field(0);
+                list.add(new Account(accNo, row.field(1), row.field(2), row.field(3), row.fieldMoney(4), row.fieldDate(5), row.fieldDate(6)));
+                accountSlots.put(accNo, slot);
+            }
+            nextAccountSlot = Math.max(0, rawLines - 1);
+            if (Files.size(accountsCsv) != (long) rawLines * ACCOUNT_RECORD_LEN) saveAccounts(list);
+        } catch (IOException e) { throw new RuntimeException("Error reading accounts: "+e.getMessage()); }
+        return list;
+    }
+
+    /** One row per start in startup_times.csv, so cold-start regressions show up over time. */
+    public void appendStartupTime(int accounts, long bootstrapMillis, long loginReadyMillis) {
+        Path log = dataDir.resolve("startup_times.csv");
+        String row = LocalDateTime.now().withNano(0) + "," + accounts + "," + bootstrapMillis + "," + loginReadyMillis + "\n";
+        try {
+            if (!Files.exists(log)) Files.write(log, "timestamp,accounts,bootstrapMillis,loginReadyMillis\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(log, row.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        } catch (IOException e) { throw new RuntimeException("Error writing startup log: "+e.getMessage()); }
+    }
+
+    /**
+     * Full rewrite; records are encoded and written in parallel chunks, each at its fixed position. Every
+     * account already passed {@link #accountRecord} when it was created, so no record can be rejected part-way.
+     */
+    public synchronized void saveAccounts(List<Account> accounts) {
+        long t0 = System.nanoTime();
+        try {
+            int n = accounts.size();
+            try (FileChannel ch = FileChannel.open(accountsCsv, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ch.truncate((n + 1L) * ACCOUNT_RECORD_LEN);
+                writeFully(ch, accountRecord(ACCOUNTS_HEADER), 0);
+                IntStream.range(0, (n + LOAD_CHUNK_RECORDS - 1) / LOAD_CHUNK_RECORDS).parallel().forEach(c -> {
+                    int from = c * LOAD_CHUNK_RECORDS, to = Math.min(n, from + LOAD_CHUNK_RECORDS);
+                    ByteBuffer buf = ByteBuffer.allocate((to - from) * ACCOUNT_RECORD_LEN);
+                    for (int i = from; i < to; i++) buf.put(accountRecord(accountLine(accounts.get(i))));
+                    try { writeFully(ch, buf.array(), (from + 1L) * ACCOUNT_RECORD_LEN); }
+                    catch (IOException e) { throw new UncheckedIOException(e); }
+                });
+            } catch (UncheckedIOException e) {
+                throw new RuntimeException("Error saving accounts: "+e.getCause().getMessage());
+            } catch (IOException e) { throw new RuntimeException("Error saving accounts: "+e.getMessage()); }
+            accountSlots.clear();
+            IntStream.range(0, n).parallel().forEach(i -> accountSlots.put(accounts.get(i).getAccountNumber(), i));
+            nextAccountSlot = n;
+        } catch (RuntimeException e) { Metric.SAVE_ACCOUNTS.failed(); throw e; }
+        finally { Metric.SAVE_ACCOUNTS.record(t0); }
+    }
+
+    private static void writeFully(FileChannel ch, byte[] bytes, long pos) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+        Metrics.bytesWritten.add(bytes.length);
+    }
+
+    /** Rewrites only this account's record; new accounts get the next free slot at the end of the file. */
+    public synchronized void saveAccount(Account a) {
+        long t0 = System.nanoTime();
+        try {
+            try { writeRecord(a); }
+            catch (IOException e) { throw new RuntimeException("Error saving account: "+e.getMessage()); }
+        } catch (RuntimeException e) { Metric.SAVE_ACCOUNT.failed(); throw e; }
+        finally { Metric.SAVE_ACCOUNT.record(t0); }
+    }
+
+    private void writeRecord(Account a) throws IOException {
+        byte[] rec = accountRecord(accountLine(a));
+        Integer slot = accountSlots.get(a.getAccountNumber());
+        if (slot == null) slot = nextAccountSlot;
+        if (accountsOut == null) accountsOut = FileChannel.open(accountsCsv, StandardOpenOption.WRITE);
+        writeFully(accountsOut, rec, (slot + 1L) * ACCOUNT_RECORD_LEN);
+        if (slot == nextAccountSlot) { accountSlots.put(a.getAccountNumber(), slot); nextAccountSlot++; }
+    }
+
+    static String accountLine(Account a) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(a.getAccountNumber()).append(',').append(a.getUsername()).append(',').append(a.getPasswordHash()).append(',')
+          .append(CSV.escape(a.getFullName())).append(',');
+        Money.append(sb, a.getBalance()).append(',')
+          .append(a.getLastInterestApplied().format(DATE)).append(',')
+          .append(a.getCreatedAt().format(DATE));
+        return sb.toString();
+    }
+
+    static byte[] accountRecord(String line) {
+        byte[] text = line.getBytes(StandardCharsets.UTF_8);
+        if (text.length >= ACCOUNT_RECORD_LEN) throw new IllegalArgumentException("Account details too long (check full name)");
+        byte[] rec = new byte[ACCOUNT_RECORD_LEN];
+        System.arraycopy(text, 0, rec, 0, text.length);
+        Arrays.fill(rec, text.length, ACCOUNT_RECORD_LEN - 1, (byte) ' ');
+        rec[ACCOUNT_RECORD_LEN - 1] = '\n';
+        return rec;
+    }
+
+    /**
+     * Appends all rows in one group commit, so e.g. both legs of a transfer land in the same batch. Bulk jobs
+     * pass thousands of rows at once; those are encoded in parallel.
+     */
+    public void appendTransactions(List<Transaction> txs) {
+        long t0 = System.nanoTime();
+        try {
+            byte[][] rows = new byte[txs.size()][];
+            String[] accounts = new String[rows.length];
+            try {
+                IntStream all = IntStream.range(0, rows.length);
+                (rows.length >= PARALLEL_ENCODE_ROWS ? all.parallel() : all).forEach(i -> {
+                    try { rows[i] = txFormat.encode(txs.get(i)); }
+                    catch (IOException e) { throw new UncheckedIOException(e); }
+                    accounts[i] = txs.get(i).getAccountNumber();
+                });
+                Exception untracked = null;
+                logLock.readLock().lock();
+                try {
+                    txIndex.ensureLoaded(); // before the append, so the catch-up scan cannot index these rows twice
+                    if (!summaries.isLoaded()) ensureSummaries(); // likewise
+                    if (!requestKeys.isLoaded() && keyed(txs)) ensureRequestKeys();
+                    long[] offsets = txLog().append(rows);
+                    try { track(txs, accounts, offsets); }
+                    catch (IOException | RuntimeException e) { untracked = e; } // logged all the same, see below
+                } finally { logLock.readLock().unlock(); }
+                if (untracked != null) rebuildTracking(untracked);
+            } catch (UncheckedIOException e) {
+                throw new RuntimeException("Error writing transaction: "+e.getCause().getMessage());
+            } catch (IOException e) { throw new RuntimeException("Error writing transaction: "+e.getMessage()); }
+        } catch (RuntimeException e) { Metric.APPEND_TRANSACTIONS.failed(); throw e; }
+        finally { Metric.APPEND_TRANSACTIONS.record(t0); }
+    }
+
+    /** Adds rows just appended at {@code offsets} to the index, the daily summaries and the request keys. */
+    void track(List<Transaction> txs, String[] accounts, long[] offsets) throws IOException {
+        txIndex.addAll(accounts, offsets);
+        long base = archivedLength() - txFormat.header().length;
+        for (int i = 0; i < offsets.length; i++) {
+            summaries.apply(txs.get(i), base + offsets[i]);
+            offsets[i] += base;
+        }
+        requestKeys.add(txs, offsets);
+    }
+
+    /**
+     * The rows are in the log but not in what is derived from it. Failing the append would leave the caller's
+     * balances behind the log, so it succeeds and the index, summaries and keys are rebuilt from the log on next use.
+     * Under the write lock, so no append is between its catch-up and its {@link #track}.
+     */
+    private void rebuildTracking(Exception cause) {
+        Metrics.log.log(Level.WARNING, "Rebuilding the transaction index, daily summaries and idempotency keys after an append", cause);
+        logLock.writeLock().lock();
+        try {
+            summaries.invalidate();
+            requestKeys.invalidate();
+            txIndex.delete();
+        } catch (IOException e) {
+            Metrics.log.log(Level.WARNING, "Transaction index not removed; it is caught up from its last entry instead", e);
+        } finally { logLock.writeLock().unlock(); }
+    }
+
+    /** Per-batch latency and throughput of the transaction log writer, or "idle" before the first write. */
+    public String transactionLogStats() {
+        TxLogWriter w = txLog;
+        return w == null ? "idle" : w.stats();
+    }
+
+    public void close() {
+        try {
+            TxLogWriter w = txLog;
+            if (w != null) w.close();
+            txIndex.close();
+            txFormat.close();
+            summaries.close();
+            synchronized (this) { if (accountsOut != null) { accountsOut.close(); accountsOut = null; } }
+        } catch (IOException e) { throw new RuntimeException("Error closing storage: "+e.getMessage()); }
+    }
+
+    private TxLogWriter txLog() throws IOException {
+        TxLogWriter w = txLog;
+        if (w == null) {
+            synchronized (this) {
+                if (txLog == null) txLog = TxLogWriter.open(txFormat.file());
+                w = txLog;
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Up to {@code limit} of the account's rows matching {@code q}, in log order, after log position
+     * {@code after} (-1 for the first page). Positions count log bytes from the first row ever written, so they
+     * survive segment rolls. Segments ruled out by their manifest are not opened; live rows come from the index.
+     */
+    public StatementPage queryTransactions(StatementQuery q, long after, int limit) {
+        long t0 = System.nanoTime();
+        try {
+            List<Transaction> page = new ArrayList<>(Math.min(limit, 1024));
+            long[] last = {-1};
+            boolean[] more = {false};
+            LocalDateTime end = q.end();
+            scanQuery(q, after, true, (pos, t) -> {
+                if (end != null && !t.getTimestamp().isBefore(end)) return false;
+                if (!q.matches(t)) return true;
+                if (page.size() == limit) { more[0] = true; return false; }
+                page.add(t);
+                last[0] = pos;
+                return true;
+            });
+            return new StatementPage(page, more[0] ? last[0] : -1);
+        } catch (RuntimeException e) { Metric.QUERY_TRANSACTIONS.failed(); throw e; }
+        finally { Metric.QUERY_TRANSACTIONS.record(t0); }
+    }
+
+    /**
+     * Counts the rows matching {@code q} and notes the cursor each page of {@code pageSize} starts from, so any
+     * page can be fetched directly. An unfiltered query counts live rows from the index without reading them.
+     */
+    public StatementOutline outlineTransactions(StatementQuery q, int pageSize) {
+        List<Long> starts = new ArrayList<>();
+        int[] rows = {0};
+        LocalDateTime end = q.end();
+        scanQuery(q, -1, !q.matchesAll(), (pos, t) -> {
+            if (t != null) {
+                if (end != null && !t.getTimestamp().isBefore(end)) return false;
+                if (!q.matches(t)) return true;
+            }
+            if (rows[0]++ % pageSize == 0) starts.add(pos);
+            return true;
+        });
+        long[] cursors = new long[starts.size()];
+        for (int i = 0; i < cursors.length; i++) cursors[i] = starts.get(i) - 1; // the cursor is exclusive
+        return new StatementOutline(rows[0], pageSize, cursors);
+    }
+
+    /**
+     * Feeds the account's rows after log position {@code after} to the sink, oldest first, until it returns false;
+     * see {@link #queryTransactions}. Live rows are passed as null unless {@code decode}.
+     */
+    private void scanQuery(StatementQuery q, long after, boolean decode, TxFormat.DecodedSink sink) {
+        LocalDateTime from = q.start(), to = q.end();
+        logLock.readLock().lock();
+        try {
+            long header = txFormat.header().length, base = 0;
+            boolean[] stopped = {false};
+            for (LogSegment seg : segments()) {
+                long segBase = base;
+                base += seg.bytes - header;
+                if (after >= base - 1 || !seg.mightContain(q.accountNumber) || !seg.overlaps(from, to)) continue;
+                try (InputStream in = new GZIPInputStream(Metrics.counted(Files.newInputStream(seg.file)), 1 << 16)) {
+                    txFormat.scanArchive(in, q.accountNumber, (off, t) -> {
+                        long pos = segBase + off - header;
+                        if (pos > after && !sink.row(pos, t)) stopped[0] = true;
+                        return !stopped[0];
+                    });
+                }
+                if (stopped[0]) return;
+            }
+            long[] offsets;
+            try { offsets = txIndex.offsetsFor(q.accountNumber); }
+            catch (IOException e) { throw new RuntimeException("Error indexing transactions: "+e.getMessage()); }
+            int i = Arrays.binarySearch(offsets, after - base + header);
+            i = i >= 0 ? i + 1 : -i - 1;
+            if (i == offsets.length) return;
+            if (!decode) {
+                for (; i < offsets.length; i++) if (!sink.row(base + offsets[i] - header, null)) return;
+                return;
+            }
+            try (TxFormat.Reader rows = txFormat.openReader()) {
+                for (; i < offsets.length; i++) {
+                    Transaction t = rows.read(offsets[i], q.accountNumber);
+                    if (t != null && !sink.row(base + offsets[i] - header, t)) return;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading transactions: "+e.getMessage());
+        } finally { logLock.readLock().unlock(); }
+    }
+
+    /**
+     * The account's rows with timestamps in [from, to), null bounds being open: archived segments whose manifest
+     * rules out the account or the range are skipped unopened, and live rows are located through the index.
+     */
+    public List<Transaction> loadTransactionsFor(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        long t0 = System.nanoTime();
+        try {
+            List<Transaction> list = new ArrayList<>();
+            logLock.readLock().lock();
+            try {
+                scanSegments(segments(), accountNumber, from, to, list::add);
+                long[] offsets;
+                try { offsets = txIndex.offsetsFor(accountNumber); }
+                catch (IOException e) { throw new RuntimeException("Error indexing transactions: "+e.getMessage()); }
+                if (offsets.length == 0) return list;
+                try (TxFormat.Reader rows = txFormat.openReader()) {
+                    for (long off : offsets) {
+                        Transaction t = rows.read(off, accountNumber);
+                        if (t != null && inRange(t, from, to)) list.add(t);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading transactions: "+e.getMessage());
+            } finally { logLock.readLock().unlock(); }
+            return list;
+        } catch (RuntimeException e) { Metric.LOAD_TRANSACTIONS.failed(); throw e; }
+        finally { Metric.LOAD_TRANSACTIONS.record(t0); }
+    }
+
+    /**
+     * The account's last {@code n} rows, oldest first: reads backwards from its newest live row and stops after
+     * n, going on into the archived segments, newest first, only if the live log has fewer.
+     */
+    public List<Transaction> loadRecentTransactionsFor(String accountNumber, int n) {
+        long t0 = System.nanoTime();
+        try {
+            logLock.readLock().lock();
+            try {
+                long[] offsets;
+                try { offsets = txIndex.lastOffsetsFor(accountNumber, n); }
+                catch (IOException e) { throw new RuntimeException("Error indexing transactions: "+e.getMessage()); }
+                Transaction[] out = new Transaction[offsets.length];
+                int found = 0;
+                if (offsets.length > 0) {
+                    try (TxFormat.Reader rows = txFormat.openReader()) {
+                        for (int i = offsets.length - 1; i >= 0; i--) {
+                            Transaction t = rows.read(offsets[i], accountNumber);
+                            if (t != null) out[out.length - 1 - found++] = t;
+                        }
+                    }
+                }
+                List<Transaction> list = new ArrayList<>(Arrays.asList(out).subList(out.length - found, out.length));
+                List<LogSegment> archived = segments();
+                for (int i = archived.size() - 1; i >= 0 && list.size() < n; i--) {
+                    List<Transaction> older = new ArrayList<>();
+                    scanSegments(Collections.singletonList(archived.get(i)), accountNumber, null, null, older::add);
+                    list.addAll(0, older.subList(Math.max(0, older.size() - (n - list.size())), older.size()));
+                }
+                return list;
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading transactions: "+e.getMessage());
+            } finally { logLock.readLock().unlock(); }
+        } catch (RuntimeException e) { Metric.RECENT_TRANSACTIONS.failed(); throw e; }
+        finally { Metric.RECENT_TRANSACTIONS.record(t0); }
+    }
+}
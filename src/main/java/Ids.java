@@ -0,0 +1,67 @@
+import java.time.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transaction ids and account number check digits. A transaction id is a positive 64-bit number: milliseconds since
+ * 2020-01-01 UTC in the high bits and a counter in the low {@link #SEQUENCE_BITS}, so ids sort like their timestamps.
+ * They are unique as long as the clock does not step back past the previous run's last id.
+ */
+class Ids {
+    static final long EPOCH_MILLIS = 1_577_836_800_000L; // 2020-01-01T00:00:00Z
+    static final int SEQUENCE_BITS = 22; // ids per millisecond before the counter runs into the next one
+    private static final AtomicLong lastTxId = new AtomicLong();
+
+    /** Strictly increasing within the process; lock-free, and a single atomic add while the clock has not moved on. */
+    public static long nextTxId() {
+        long floor = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        for (long last = lastTxId.get(); last < floor; last = lastTxId.get()) {
+            if (lastTxId.compareAndSet(last, floor)) return floor;
+        }
+        return lastTxId.incrementAndGet();
+    }
+
+    public static String newTransactionId() { return Long.toString(nextTxId()); }
+
+    /** When a transaction id was issued (to the millisecond). */
+    public static Instant timestampOf(long txId) { return Instant.ofEpochMilli((txId >>> SEQUENCE_BITS) + EPOCH_MILLIS); }
+
+    /**
+     * Fingerprint of an idempotency key as used by one account: positive and never 0, or 0 when there is no key.
+     * Keys are the caller's (at most 255 characters); two distinct keys share a fingerprint with odds of about one
+     * in 2^63, and a shared one is still only taken for a repeat if it names the same operation and amount.
+     */
+    public static long requestKey(String accountNumber, String key) {
+        if (key == null || key.isEmpty()) return 0;
+        if (key.length() > 255) throw new IllegalArgumentException("Idempotency key is too long");
+        long h = 0xcbf29ce484222325L; // FNV-1a over both strings, then MurmurHash3's finaliser
+        for (int i = 0; i < accountNumber.length(); i++) h = (h ^ accountNumber.charAt(i)) * 0x100000001b3L;
+        h = (h ^ '/') * 0x100000001b3L;
+        for (int i = 0; i < key.length(); i++) h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        h ^= h >>> 33; h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33; h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        h &= Long.MAX_VALUE;
+        return h == 0 ? 1 : h;
+    }
+
+    /** {@code base} followed by its Luhn check digit. */
+    public static String withCheckDigit(long base) { return Long.toString(base * 10 + luhn(base)); }
+
+    /** Whether the last digit is the Luhn check digit of the others; catches any single mistyped digit. */
+    public static boolean hasValidCheckDigit(String number) {
+        if (number.length() < 2 || number.length() > 18) return false;
+        for (int i = 0; i < number.length(); i++) if (number.charAt(i) < '0' || number.charAt(i) > '9') return false;
+        long n = Long.parseLong(number);
+        return luhn(n / 10) == n % 10;
+    }
+
+    private static int luhn(long base) {
+        int sum = 0;
+        for (boolean twice = true; base > 0; base /= 10, twice = !twice) {
+            int d = (int) (base % 10);
+            if (twice) d = d * 2 > 9 ? d * 2 - 9 : d * 2;
+            sum += d;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,82 @@
+import java.time.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Nightly interest accrual for every account: {@code java BankAppGUI --accrue-interest [yyyy-MM-dd]} (default
+ * today), by the rule of {@link Bank#applyInterest}. Computed in parallel over primitive arrays, logged in large
+ * group commits, saved once. Like {@link BatchPoster}, it expects to have the bank to itself.
+ */
+class InterestJob {
+    private static final int WRITE_CHUNK = 65_536; // rows per log append
+
+    /** Totals of one run. */
+    static final class Result {
+        int accounts, credited;
+        long interest; // paise
+    }
+
+    static int run(String[] args) {
+        if (args.length > 2) {
+            System.err.println("usage: java BankAppGUI --accrue-interest [yyyy-MM-dd]");
+            return 2;
+        }
+        LocalDate asOf = args.length > 1 ? LocalDate.parse(args[1]) : LocalDate.now();
+        Storage storage = Storage.fromConfig();
+        Bank bank = new Bank(storage);
+        long t0 = System.nanoTime();
+        bank.bootstrap();
+        try {
+            long t1 = System.nanoTime();
+            storage.openTransactionIndex(); // otherwise the first append pays for it
+            long t2 = System.nanoTime();
+            Result r = accrue(bank, storage, asOf);
+            long t3 = System.nanoTime();
+            if (r.credited > 0) bank.persist();
+            long t4 = System.nanoTime();
+            System.out.printf(Locale.US, "Interest as of %s: %d of %d accounts credited, total %s%n",
+                    asOf, r.credited, r.accounts, Money.format(r.interest));
+            System.out.printf(Locale.US, "load %.2f s, index %.2f s, accrue and log %.2f s, save %.2f s = %.0f accounts/s%n",
+                    (t1 - t0) / 1e9, (t2 - t1) / 1e9, (t3 - t2) / 1e9, (t4 - t3) / 1e9, r.accounts / Math.max((t4 - t2) / 1e9, 1e-9));
+            return 0;
+        } finally {
+            bank.close();
+        }
+    }
+
+    static Result accrue(Bank bank, Storage storage, LocalDate asOf) {
+        Account[] all = bank.accounts().toArray(new Account[0]);
+        int n = all.length;
+        long today = asOf.toEpochDay();
+        long[] balance = new long[n];
+        long[] days = new long[n];
+        long[] interest = new long[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            balance[i] = all[i].getBalance();
+            days[i] = today - all[i].getLastInterestApplied().toEpochDay();
+            interest[i] = Bank.interestFor(balance[i], days[i]);
+        });
+        int[] credited = IntStream.range(0, n).parallel().filter(i -> interest[i] > 0).toArray();
+
+        for (int from = 0; from < credited.length; from += WRITE_CHUNK) {
+            int base = from;
+            Transaction[] rows = new Transaction[Math.min(WRITE_CHUNK, credited.length - from)];
+            IntStream.range(0, rows.length).parallel().forEach(k -> {
+                int i = credited[base + k];
+                rows[k] = Transaction.interest(all[i].getAccountNumber(), interest[i], Math.addExact(balance[i], interest[i]), days[i]);
+            });
+            storage.appendTransactions(Arrays.asList(rows));
+            IntStream.range(0, rows.length).parallel().forEach(k -> { // only now: a failed append must leave them as they were
+                int i = credited[base + k];
+                all[i].setBalance(rows[k].getBalanceAfter());
+                all[i].setLastInterestApplied(asOf);
+            });
+        }
+
+        Result r = new Result();
+        r.accounts = n;
+        r.credited = credited.length;
+        r.interest = Arrays.stream(credited).parallel().mapToLong(i -> interest[i]).sum();
+        return r;
+    }
+}
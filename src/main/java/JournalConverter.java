@@ -0,0 +1,43 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Converts a transaction log between the CSV and binary journal layouts:
+ * {@code java BankAppGUI --convert-journal <in> <out>}, where a *.bin path is the binary journal (with its .dict
+ * file alongside) and anything else is CSV. Refuses to overwrite an existing output.
+ */
+class JournalConverter {
+    static int run(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: java BankAppGUI --convert-journal <in.csv|in.bin> <out.bin|out.csv>");
+            return 2;
+        }
+        Path in = Paths.get(args[1]), out = Paths.get(args[2]);
+        if (Files.exists(out)) { System.err.println("Refusing to overwrite " + out); return 1; }
+        TxFormat from = TxFormat.forFile(in), to = TxFormat.forFile(out);
+        long[] rows = {0};
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out, StandardOpenOption.CREATE_NEW), 1 << 16)) {
+            os.write(to.header());
+            from.forEach(t -> {
+                try { os.write(to.encode(t)); rows[0]++; }
+                catch (IOException e) { throw new UncheckedIOException(e); }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            from.close();
+            to.close();
+        }
+        long inSize = size(in), outSize = size(out);
+        System.out.printf(Locale.US, "%d rows: %s (%d bytes) -> %s (%d bytes, %.2fx)%n",
+                rows[0], in, inSize, out, outSize, outSize == 0 ? 0.0 : inSize / (double) outSize);
+        return 0;
+    }
+
+    /** Log size including a binary journal's dictionary. */
+    private static long size(Path log) throws IOException {
+        Path dict = log.resolveSibling(log.getFileName() + ".dict");
+        return Files.size(log) + (Files.exists(dict) ? Files.size(dict) : 0);
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.*;
+
+/** Just enough JSON for the API: flat objects in, hand-built objects out. */
+final class Json {
+    private Json() { }
+
+    /** Parses a flat object; string, number and literal values all come back as their text (null as null). */
+    static Map<String, String> parseObject(String s) {
+        Map<String, String> out = new HashMap<>();
+        int[] pos = {skip(s, 0)};
+        expectChar(s, pos, '{');
+        if (peek(s, pos) == '}') { pos[0]++; return out; }
+        while (true) {
+            if (peek(s, pos) != '"') throw new IllegalArgumentException("Expected a field name at " + pos[0]);
+            String key = string(s, pos);
+            expectChar(s, pos, ':');
+            char c = peek(s, pos);
+            String value;
+            if (c == '"') {
+                value = string(s, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < s.length() && ",} \t\r\n".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+                value = s.substring(start, pos[0]);
+                if (value.isEmpty() || c == '{' || c == '[') throw new IllegalArgumentException("Only flat JSON objects are accepted");
+                if (value.equals("null")) value = null;
+            }
+            out.put(key, value);
+            char next = peek(s, pos);
+            pos[0]++;
+            if (next == '}') break;
+            if (next != ',') throw new IllegalArgumentException("Expected , or } at " + (pos[0] - 1));
+        }
+        if (skip(s, pos[0]) != s.length()) throw new IllegalArgumentException("Trailing characters after JSON object");
+        return out;
+    }
+
+    /** Appends "name":"value" with the value escaped; null values are written as null. */
+    static StringBuilder field(StringBuilder sb, String name, String value) {
+        sb.append('"').append(name).append("\":");
+        if (value == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static String string(String s, int[] pos) {
+        pos[0]++; // opening quote
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("Unterminated string");
+            char c = s.charAt(pos[0]++);
+            if (c == '"') break;
+            if (c != '\\') { sb.append(c); continue; }
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("Unterminated string");
+            char e = s.charAt(pos[0]++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("Bad \\u escape");
+                    sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: sb.append(e); // \" \\ \/
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void expectChar(String s, int[] pos, char c) {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("Expected '" + c + "' at " + pos[0]);
+        pos[0]++;
+    }
+
+    /** Skips whitespace and returns the next character, or 0 at the end. */
+    private static char peek(String s, int[] pos) {
+        pos[0] = skip(s, pos[0]);
+        return pos[0] < s.length() ? s.charAt(pos[0]) : 0;
+    }
+
+    private static int skip(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+}
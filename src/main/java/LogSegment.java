@@ -0,0 +1,109 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One archived slice of the transaction log: a gzip-compressed copy of the log file as it was (header
+ * included), plus a manifest with its row count, time range and a bloom filter of the accounts it has rows
+ * for, so statement reads can pass over segments without opening them.
+ */
+final class LogSegment {
+    private static final int BITS_PER_ACCOUNT = 10, HASHES = 7; // about 1% false positives
+
+    final int seq;
+    final Path file;
+    final long bytes; // uncompressed length, header included: the live log's length when it was archived
+    final long rows;
+    final LocalDateTime first, last; // null when the segment is empty
+    private final long[] bloom;
+
+    private LogSegment(int seq, Path file, long bytes, long rows, LocalDateTime first, LocalDateTime last, long[] bloom) {
+        this.seq = seq; this.file = file; this.bytes = bytes; this.rows = rows; this.first = first; this.last = last; this.bloom = bloom;
+    }
+
+    /** Builds the manifest by reading the compressed segment back, which also proves it decompresses. */
+    static LogSegment summarize(int seq, Path file, long bytes, TxFormat format) throws IOException {
+        long[] count = new long[1];
+        LocalDateTime[] range = new LocalDateTime[2];
+        long[][] accounts = { new long[1024] };
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+            format.scanArchive(in, null, (off, t) -> {
+                LocalDateTime ts = t.getTimestamp();
+                if (range[0] == null || ts.isBefore(range[0])) range[0] = ts;
+                if (range[1] == null || ts.isAfter(range[1])) range[1] = ts;
+                if (count[0] == accounts[0].length) accounts[0] = Arrays.copyOf(accounts[0], accounts[0].length * 2);
+                accounts[0][(int) count[0]++] = Long.parseLong(t.getAccountNumber());
+                return true;
+            });
+        }
+        long[] distinct = Arrays.stream(accounts[0], 0, (int) count[0]).parallel().distinct().toArray();
+        long[] bloom = new long[Math.max(1, (distinct.length * BITS_PER_ACCOUNT + 63) / 64)];
+        for (long acc : distinct) {
+            long h1 = mix(acc), h2 = mix(h1) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bloom.length * 64L);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return new LogSegment(seq, file, bytes, count[0], range[0], range[1], bloom);
+    }
+
+    boolean mightContain(String accountNumber) {
+        long acc;
+        try { acc = Long.parseLong(accountNumber); }
+        catch (NumberFormatException e) { return false; }
+        long h1 = mix(acc), h2 = mix(h1) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bloom.length * 64L);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Whether any row may fall in [from, to); null bounds are open. */
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        if (first == null) return false;
+        return (from == null || !last.isBefore(from)) && (to == null || first.isBefore(to));
+    }
+
+    void writeManifest(Path manifest) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("segment", file.getFileName().toString());
+        p.setProperty("bytes", Long.toString(bytes));
+        p.setProperty("rows", Long.toString(rows));
+        if (first != null) {
+            p.setProperty("first", first.toString());
+            p.setProperty("last", last.toString());
+        }
+        ByteBuffer bits = ByteBuffer.allocate(bloom.length * 8);
+        bits.asLongBuffer().put(bloom);
+        p.setProperty("accountBloom", Base64.getEncoder().encodeToString(bits.array()));
+        Path tmp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) { p.store(out, "Transaction log segment"); }
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) { ch.force(false); }
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static LogSegment readManifest(int seq, Path file, Path manifest) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(manifest)) { p.load(in); }
+        try {
+            String first = p.getProperty("first"), last = p.getProperty("last");
+            ByteBuffer bits = ByteBuffer.wrap(Base64.getDecoder().decode(p.getProperty("accountBloom", "")));
+            long[] bloom = new long[Math.max(1, bits.remaining() / 8)];
+            bits.asLongBuffer().get(bloom, 0, bits.remaining() / 8);
+            return new LogSegment(seq, file, Long.parseLong(p.getProperty("bytes")), Long.parseLong(p.getProperty("rows", "0")),
+                    first == null ? null : LocalDateTime.parse(first), last == null ? null : LocalDateTime.parse(last), bloom);
+        } catch (RuntimeException e) { throw new IOException("Bad segment manifest " + manifest.getFileName() + ": " + e.getMessage()); }
+    }
+
+    private static long mix(long x) { // SplitMix64 finalizer
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
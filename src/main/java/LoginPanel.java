@@ -0,0 +1,122 @@
+import javax.swing.*;
+
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+class LoginPanel extends JPanel {
+    private final JLabel lblStatus = new JLabel(" ", SwingConstants.CENTER);
+    private final JButton btnLogin = new JButton("🔐 Login");
+    private final JButton btnRegister = new JButton("➕ Create new account");
+    private final JProgressBar progress = new JProgressBar(0, 1000);
+
+    public LoginPanel(AppFrame app, AsyncBank bank) {
+        setLayout(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(10, 10, 10, 10);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel title = bigLabel("🏦 Online Banking System");
+        c.gridx = 0; c.gridy = 0; c.gridwidth = 2; add(title, c);
+
+        c.gridwidth = 1;
+        JLabel lUser = new JLabel("👤 Username");
+        lUser.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfUser = new JTextField(16);
+        tfUser.setToolTipText("Enter your username (4-16 alphanumeric characters)");
+        tfUser.setFont(BankAppGUI.BODY_FONT);
+        JLabel lPass = new JLabel("🔒 Password");
+        lPass.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField pfPass = new JPasswordField(16);
+        pfPass.setToolTipText("Enter your password");
+        pfPass.setFont(BankAppGUI.BODY_FONT);
+        btnLogin.setToolTipText("Login to your account");
+        btnLogin.setFont(BankAppGUI.BODY_FONT);
+        btnRegister.setToolTipText("Register a new account");
+        btnRegister.setFont(BankAppGUI.BODY_FONT);
+
+        c.gridy = 1; c.gridx = 0; add(lUser, c);
+        c.gridx = 1; add(tfUser, c);
+        c.gridy = 2; c.gridx = 0; add(lPass, c);
+        c.gridx = 1; add(pfPass, c);
+        c.gridy = 3; c.gridx = 0; add(btnLogin, c);
+        c.gridx = 1; add(btnRegister, c);
+        lblStatus.setFont(BankAppGUI.BODY_FONT);
+        c.gridy = 4; c.gridx = 0; c.gridwidth = 2; add(lblStatus, c);
+        progress.setVisible(false);
+        c.gridy = 5; add(progress, c);
+
+        // Add hover effects
+        addHoverEffect(btnLogin);
+        addHoverEffect(btnRegister);
+
+        btnLogin.addActionListener(e -> {
+            String u = tfUser.getText().trim();
+            String p = new String(pfPass.getPassword());
+            setBusy("Signing in…");
+            AsyncBank.onEdt(bank.login(u, p), acc -> {
+                setReady(" ");
+                if (acc.isPresent()) {
+                    JOptionPane.showMessageDialog(this, "Welcome, " + acc.get().getFullName() + "!");
+                    app.onLoginSuccess(acc.get());
+                } else {
+                    JOptionPane.showMessageDialog(this, "Invalid credentials.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, ex -> {
+                setReady(" ");
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
+        });
+
+        btnRegister.addActionListener(e -> app.showRegister());
+    }
+
+    /** Shows a status message and locks the form while the bank is working. */
+    void setBusy(String status) {
+        lblStatus.setText("⏳ " + status);
+        btnLogin.setEnabled(false);
+        btnRegister.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    /** Startup progress, as the fraction (0..1) of accounts loaded; hidden again by {@link #setReady}. */
+    void setProgress(double fraction) {
+        progress.setValue((int) Math.round(fraction * 1000));
+        progress.setVisible(true);
+        revalidate();
+    }
+
+    void setReady(String status) {
+        progress.setVisible(false);
+        lblStatus.setText(status);
+        btnLogin.setEnabled(true);
+        btnRegister.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
+    }
+
+    private JLabel bigLabel(String t) {
+        JLabel l = new JLabel(t, SwingConstants.CENTER);
+        l.setFont(BankAppGUI.TITLE_FONT);
+        l.setForeground(BankAppGUI.PRIMARY_BLUE);
+        return l;
+    }
+
+    private void addHoverEffect(JButton button) {
+        button.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                button.setBackground(BankAppGUI.SECONDARY_BLUE);
+                button.setForeground(Color.WHITE);
+            }
+            @Override
+            public void mouseExited(MouseEvent e) {
+                button.setBackground(UIManager.getColor("Button.background"));
+                button.setForeground(UIManager.getColor("Button.foreground"));
+            }
+        });
+    }
+}
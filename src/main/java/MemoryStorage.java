@@ -0,0 +1,255 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * The in-memory engine: records, the log and everything derived from it live on the heap, so load runs measure
+ * the domain logic without I/O. A row's log position is its index in the log. With a snapshot directory, the
+ * CSV files are loaded from it at start and written back, log first, on {@link Bank#persist} and {@link #close}.
+ */
+class MemoryStorage implements Storage {
+    private final Path dir; // snapshot directory, or null
+    private final Map<String, Account> records = new ConcurrentHashMap<>(); // copies, as a checkpoint would write them
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // exclusive for appends
+    private final List<Transaction> log = new ArrayList<>();
+    private final Map<String, Rows> byAccount = new HashMap<>();
+    private final DailySummaries summaries = new DailySummaries(null, "memory");
+    private final RequestKeys requestKeys = new RequestKeys();
+    private final AccountSequence accountNumbers;
+    private boolean opened;
+
+    /** One account's rows and their log positions, oldest first. Guarded by {@link #lock}. */
+    private static final class Rows {
+        Transaction[] tx = new Transaction[8];
+        long[] pos = new long[8];
+        int n;
+
+        void add(Transaction t, long position) {
+            if (n == tx.length) { tx = Arrays.copyOf(tx, n * 2); pos = Arrays.copyOf(pos, n * 2); }
+            tx[n] = t;
+            pos[n++] = position;
+        }
+
+        /** Index of the first row after {@code position}. */
+        int after(long position) {
+            int i = Arrays.binarySearch(pos, 0, n, position);
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+    }
+
+    MemoryStorage(Path snapshotDir) {
+        this.dir = snapshotDir;
+        this.accountNumbers = new AccountSequence(snapshotDir == null ? null : snapshotDir.resolve("account_sequence"));
+    }
+
+    public String newAccountNumber() { return accountNumbers.next(); }
+
+    /** Loads the snapshot, if there is one, once. */
+    public synchronized void ensureFiles() {
+        if (opened) return;
+        try {
+            if (dir != null && Files.exists(dir.resolve("accounts.csv"))) {
+                for (Account a : new FileStorage(dir, "csv").loadAccounts()) records.put(a.getAccountNumber(), a);
+                Path tx = dir.resolve("transactions.csv");
+                if (Files.exists(tx)) new CsvTxFormat(tx).forEach(this::add);
+                for (Rows r : byAccount.values()) {
+                    Account a = records.get(r.tx[0].getAccountNumber());
+                    if (a == null) continue; // its record never made it into the snapshot
+                    a.setBalance(r.tx[r.n - 1].getBalanceAfter());
+                    for (int i = 0; i < r.n; i++) {
+                        LocalDate day = r.tx[i].getTimestamp().toLocalDate();
+                        if (r.tx[i].getType() == TxType.INTEREST && day.isAfter(a.getLastInterestApplied())) a.setLastInterestApplied(day);
+                    }
+                }
+            }
+            summaries.ensureLoaded(this::rowsFrom, () -> { });
+            requestKeys.ensureLoaded(0, this::rowsFrom);
+            opened = true;
+        } catch (IOException e) { throw new RuntimeException("Error loading snapshot: "+e.getMessage()); }
+    }
+
+    public void openTransactionIndex() { }
+
+    public long recoverJournal() { return journalEnd(); } // balances already follow the newest rows
+
+    public long replayJournal(long offset, Consumer<Transaction> action) {
+        long[] rows = new long[1];
+        try { rowsFrom(offset, (pos, t) -> { action.accept(t); rows[0]++; return true; }); }
+        catch (IOException e) { throw new UncheckedIOException(e); } // not thrown by rowsFrom
+        return rows[0];
+    }
+
+    public long journalEnd() {
+        lock.readLock().lock();
+        try { return log.size(); }
+        finally { lock.readLock().unlock(); }
+    }
+
+    public void checkpoint(List<Account> accounts, List<DailySummary> days, long journalOffset) {
+        for (Account a : accounts) records.put(a.getAccountNumber(), a.copy());
+    }
+
+    // Summaries are never written anywhere, so there are no changes to hand to a checkpoint.
+    public void takeDailySummaryChanges(String accountNumber, List<DailySummary> into) { }
+
+    public void restoreDailySummaryChanges(List<DailySummary> taken) { }
+
+    public List<DailySummary> loadDailySummaries(String accountNumber, LocalDate from, LocalDate to) { return summaries.between(accountNumber, from, to); }
+
+    public Long balanceAtStartOf(String accountNumber, LocalDate day) { return summaries.balanceAtStartOf(accountNumber, day); }
+
+    public Transaction[] findRequest(long key) { return key == 0 ? null : requestKeys.get(key); }
+
+    public List<Account> loadAccounts(DoubleConsumer progress) {
+        ensureFiles();
+        List<Account> list = new ArrayList<>(records.size());
+        for (Account a : records.values()) list.add(a.copy());
+        progress.accept(1.0);
+        return list;
+    }
+
+    public void appendStartupTime(int accounts, long bootstrapMillis, long loginReadyMillis) { } // nothing on disk to compare
+
+    public void saveAccounts(List<Account> accounts) {
+        records.clear();
+        for (Account a : accounts) records.put(a.getAccountNumber(), a.copy());
+        snapshot();
+    }
+
+    public void saveAccount(Account a) {
+        FileStorage.accountRecord(FileStorage.accountLine(a)); // same limit as the file engine, so a snapshot can hold it
+        records.put(a.getAccountNumber(), a.copy());
+    }
+
+    public void appendTransactions(List<Transaction> txs) {
+        long[] positions = new long[txs.size()];
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = add(txs.get(i));
+                summaries.apply(txs.get(i), positions[i]);
+            }
+            requestKeys.add(txs, positions);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    private long add(Transaction t) {
+        long position = log.size();
+        log.add(t);
+        byAccount.computeIfAbsent(t.getAccountNumber(), k -> new Rows()).add(t, position);
+        return position;
+    }
+
+    public String transactionLogStats() { return "memory: " + journalEnd() + " rows"; }
+
+    public void close() { snapshot(); }
+
+    public List<Transaction> loadTransactionsFor(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        List<Transaction> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Rows r = byAccount.get(accountNumber);
+            for (int i = 0; r != null && i < r.n; i++) if (FileStorage.inRange(r.tx[i], from, to)) list.add(r.tx[i]);
+        } finally { lock.readLock().unlock(); }
+        return list;
+    }
+
+    public List<Transaction> loadRecentTransactionsFor(String accountNumber, int n) {
+        lock.readLock().lock();
+        try {
+            Rows r = byAccount.get(accountNumber);
+            if (r == null) return new ArrayList<>();
+            return new ArrayList<>(Arrays.asList(r.tx).subList(Math.max(0, r.n - n), r.n));
+        } finally { lock.readLock().unlock(); }
+    }
+
+    public StatementPage queryTransactions(StatementQuery q, long after, int limit) {
+        List<Transaction> page = new ArrayList<>(Math.min(limit, 1024));
+        long last = -1;
+        boolean more = false;
+        LocalDateTime end = q.end();
+        lock.readLock().lock();
+        try {
+            Rows r = byAccount.get(q.accountNumber);
+            for (int i = r == null ? 0 : r.after(after); r != null && i < r.n; i++) {
+                Transaction t = r.tx[i];
+                if (end != null && !t.getTimestamp().isBefore(end)) break;
+                if (!q.matches(t)) continue;
+                if (page.size() == limit) { more = true; break; }
+                page.add(t);
+                last = r.pos[i];
+            }
+        } finally { lock.readLock().unlock(); }
+        return new StatementPage(page, more ? last : -1);
+    }
+
+    public StatementOutline outlineTransactions(StatementQuery q, int pageSize) {
+        List<Long> starts = new ArrayList<>();
+        int rows = 0;
+        LocalDateTime end = q.end();
+        lock.readLock().lock();
+        try {
+            Rows r = byAccount.get(q.accountNumber);
+            for (int i = 0; r != null && i < r.n; i++) {
+                Transaction t = r.tx[i];
+                if (end != null && !t.getTimestamp().isBefore(end)) break;
+                if (!q.matches(t)) continue;
+                if (rows++ % pageSize == 0) starts.add(r.pos[i] - 1); // the cursor is exclusive
+            }
+        } finally { lock.readLock().unlock(); }
+        long[] cursors = new long[starts.size()];
+        for (int i = 0; i < cursors.length; i++) cursors[i] = starts.get(i);
+        return new StatementOutline(rows, pageSize, cursors);
+    }
+
+    /** Feeds every row at log position {@code from} or later to the sink, oldest first; returns the end position. */
+    private long rowsFrom(long from, TxFormat.DecodedSink sink) throws IOException {
+        lock.readLock().lock();
+        try {
+            for (int i = (int) Math.max(0, from); i < log.size(); i++) if (!sink.row(i, log.get(i))) break;
+            return log.size();
+        } finally { lock.readLock().unlock(); }
+    }
+
+    /** Writes the log, then the account records, to the snapshot directory; see the class comment. */
+    private synchronized void snapshot() {
+        if (dir == null || !opened) return;
+        Transaction[] rows;
+        lock.readLock().lock();
+        try { rows = log.toArray(new Transaction[0]); }
+        finally { lock.readLock().unlock(); }
+        List<Account> accounts = new ArrayList<>(records.values());
+        try {
+            Files.createDirectories(dir);
+            CsvTxFormat csv = new CsvTxFormat(dir.resolve("transactions.csv"));
+            replace(csv.file(), out -> {
+                out.write(csv.header());
+                for (Transaction t : rows) out.write(csv.encode(t));
+            });
+            replace(dir.resolve("accounts.csv"), out -> {
+                out.write(FileStorage.accountRecord(FileStorage.ACCOUNTS_HEADER));
+                for (Account a : accounts) out.write(FileStorage.accountRecord(FileStorage.accountLine(a)));
+            });
+        } catch (IOException e) { throw new RuntimeException("Error writing snapshot: "+e.getMessage()); }
+    }
+
+    private interface Content { void writeTo(OutputStream out) throws IOException; }
+
+    private static void replace(Path file, Content content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+            content.writeTo(out);
+            out.flush();
+            ch.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
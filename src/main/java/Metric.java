@@ -0,0 +1,25 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bank and Storage operations timed into {@link Metrics}, each with a latency histogram and a count of calls that
+ * threw (for login, that were refused). Timed as
+ * {@code long t0 = System.nanoTime(); try { ... } catch (RuntimeException e) { m.failed(); throw e; } finally { m.record(t0); }}.
+ */
+enum Metric {
+    BOOTSTRAP("Bank.bootstrap"), CHECKPOINT("Bank.checkpoint"), PERSIST("Bank.persist"), LOGIN("Bank.login"),
+    DEPOSIT("Bank.deposit"), WITHDRAW("Bank.withdraw"), TRANSFER("Bank.transfer"), POST("Bank.post"),
+    POST_ALL("Bank.postAll"), APPLY_INTEREST("Bank.applyInterest"),
+    LOAD_ACCOUNTS("Storage.loadAccounts"), SAVE_ACCOUNTS("Storage.saveAccounts"), SAVE_ACCOUNT("Storage.saveAccount"),
+    APPEND_TRANSACTIONS("Storage.appendTransactions"), LOAD_TRANSACTIONS("Storage.loadTransactionsFor"),
+    RECENT_TRANSACTIONS("Storage.loadRecentTransactionsFor"), QUERY_TRANSACTIONS("Storage.queryTransactions");
+
+    final String label;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LongAdder errors = new LongAdder();
+
+    Metric(String label) { this.label = label; }
+
+    void record(long startNanos) { latency.record(System.nanoTime() - startNanos); }
+
+    void failed() { errors.increment(); }
+}
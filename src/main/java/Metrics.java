@@ -0,0 +1,220 @@
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import java.io.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide metrics: the {@link Metric} histograms, plus the bytes read and written through the transaction
+ * log, its segments and accounts.csv. Recording is always on; {@link #start} also publishes them as JMX MBeans
+ * (bank:type=Operation,name=&lt;label&gt; with latencies in nanoseconds since start, and bank:type=IO) and, every
+ * bank.metrics.dumpSeconds (default 0 = never), prints the operations called since the last dump to stderr.
+ */
+final class Metrics {
+    /** Where the bank reports what happened outside any call: recovery at start, background failures. */
+    static final Logger log = Logger.getLogger("bank");
+    static final LongAdder bytesRead = new LongAdder();
+    static final LongAdder bytesWritten = new LongAdder();
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private Metrics() { }
+
+    /** Registers the MBeans and starts the periodic dump; later calls do nothing. */
+    static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Metric m : Metric.values()) {
+                Map<String, ToLongFunction<LatencyHistogram.Snapshot>> values = new LinkedHashMap<>();
+                values.put("Count", l -> l.count);
+                values.put("Errors", l -> m.errors.sum());
+                values.put("MeanNanos", LatencyHistogram.Snapshot::mean);
+                values.put("P50Nanos", l -> l.percentile(0.50));
+                values.put("P90Nanos", l -> l.percentile(0.90));
+                values.put("P99Nanos", l -> l.percentile(0.99));
+                values.put("P999Nanos", l -> l.percentile(0.999));
+                values.put("MaxNanos", l -> l.max);
+                server.registerMBean(new Gauges<>("Latency of " + m.label, m.latency::snapshot, values),
+                        new ObjectName("bank:type=Operation,name=" + m.label));
+            }
+            Map<String, ToLongFunction<long[]>> io = new LinkedHashMap<>();
+            io.put("BytesRead", b -> b[0]);
+            io.put("BytesWritten", b -> b[1]);
+            server.registerMBean(new Gauges<>("Storage I/O", () -> new long[] {bytesRead.sum(), bytesWritten.sum()}, io),
+                    new ObjectName("bank:type=IO"));
+        } catch (JMException e) { log.warning("Metrics not published over JMX: " + e.getMessage()); }
+
+        long seconds = Long.getLong("bank.metrics.dumpSeconds", 0);
+        if (seconds <= 0) return;
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        Snapshot[] last = {snapshot()};
+        s.scheduleAtFixedRate(() -> {
+            Snapshot now = snapshot(), delta = now.since(last[0]);
+            last[0] = now;
+            if (!delta.isIdle()) System.err.print(format(delta, "metrics, last " + seconds + " s"));
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /** Counts the bytes read through {@code in}. */
+    static InputStream counted(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) bytesRead.increment();
+                return b;
+            }
+            @Override public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) bytesRead.add(n);
+                return n;
+            }
+        };
+    }
+
+    static Snapshot snapshot() {
+        Metric[] all = Metric.values();
+        LatencyHistogram.Snapshot[] latency = new LatencyHistogram.Snapshot[all.length];
+        long[] errors = new long[all.length];
+        for (Metric m : all) {
+            latency[m.ordinal()] = m.latency.snapshot();
+            errors[m.ordinal()] = m.errors.sum();
+        }
+        return new Snapshot(System.nanoTime(), latency, errors, bytesRead.sum(), bytesWritten.sum());
+    }
+
+    /** Every metric at one moment, or (from {@link #since}) what changed between two. */
+    static final class Snapshot {
+        final long nanos; // System.nanoTime() when taken; the interval's length for a difference
+        final LatencyHistogram.Snapshot[] latency; // by Metric ordinal
+        final long[] errors;
+        final long bytesRead, bytesWritten;
+
+        Snapshot(long nanos, LatencyHistogram.Snapshot[] latency, long[] errors, long bytesRead, long bytesWritten) {
+            this.nanos = nanos; this.latency = latency; this.errors = errors;
+            this.bytesRead = bytesRead; this.bytesWritten = bytesWritten;
+        }
+
+        Snapshot since(Snapshot earlier) {
+            LatencyHistogram.Snapshot[] l = new LatencyHistogram.Snapshot[latency.length];
+            long[] e = new long[errors.length];
+            for (int i = 0; i < l.length; i++) {
+                l[i] = latency[i].since(earlier.latency[i]);
+                e[i] = errors[i] - earlier.errors[i];
+            }
+            return new Snapshot(nanos - earlier.nanos, l, e, bytesRead - earlier.bytesRead, bytesWritten - earlier.bytesWritten);
+        }
+
+        boolean isIdle() {
+            for (LatencyHistogram.Snapshot l : latency) if (l.count > 0) return false;
+            return bytesRead == 0 && bytesWritten == 0;
+        }
+    }
+
+    /** A text table of the operations with calls in {@code s}, and its I/O. */
+    static String format(Snapshot s, String title) {
+        StringBuilder sb = new StringBuilder(title).append(" (").append(LocalDateTime.now().withNano(0)).append(")\n");
+        for (Metric m : Metric.values()) {
+            LatencyHistogram.Snapshot l = s.latency[m.ordinal()];
+            if (l.count == 0) continue;
+            sb.append(String.format(Locale.US, "  %-34s %9d calls %6d errors   p50 %9s   p99 %9s   p99.9 %9s   max %11s%n",
+                    m.label, l.count, s.errors[m.ordinal()], duration(l.percentile(0.50)), duration(l.percentile(0.99)),
+                    duration(l.percentile(0.999)), (l.maxExact ? "" : "<= ") + duration(l.max)));
+        }
+        sb.append("  bytes read ").append(bytes(s.bytesRead)).append(", written ").append(bytes(s.bytesWritten)).append('\n');
+        return sb.toString();
+    }
+
+    static String duration(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return String.format(Locale.US, "%.1f us", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format(Locale.US, "%.1f ms", nanos / 1e6);
+        return String.format(Locale.US, "%.2f s", nanos / 1e9);
+    }
+
+    static String bytes(long n) {
+        if (n < 1024) return n + " B";
+        if (n < 1024 * 1024) return String.format(Locale.US, "%.1f KiB", n / 1024.0);
+        if (n < 1024L * 1024 * 1024) return String.format(Locale.US, "%.1f MiB", n / (1024.0 * 1024));
+        return String.format(Locale.US, "%.2f GiB", n / (1024.0 * 1024 * 1024));
+    }
+
+    /**
+     * A read-only MBean whose long attributes are read from one snapshot of {@code S}: a getAttributes call takes
+     * a single snapshot for all the names it asks for, and the snapshot is reused for {@link #REUSE_NANOS}, so a
+     * console polling attribute by attribute sees consistent values without copying the source for each.
+     */
+    private static final class Gauges<S> implements DynamicMBean {
+        private static final long REUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final Supplier<S> source;
+        private final Map<String, ToLongFunction<S>> values;
+        private final MBeanInfo info;
+        private S last;
+        private long takenAt;
+
+        Gauges(String description, Supplier<S> source, Map<String, ToLongFunction<S>> values) {
+            this.source = source;
+            this.values = values;
+            MBeanAttributeInfo[] attributes = values.keySet().stream()
+                    .map(n -> new MBeanAttributeInfo(n, "long", n, true, false, false)).toArray(MBeanAttributeInfo[]::new);
+            this.info = new MBeanInfo(Gauges.class.getName(), description, attributes, null, null, null);
+        }
+
+        private synchronized S snapshot() {
+            long now = System.nanoTime();
+            if (last == null || now - takenAt > REUSE_NANOS) {
+                last = source.get();
+                takenAt = now;
+            }
+            return last;
+        }
+
+        public Object getAttribute(String name) throws AttributeNotFoundException {
+            ToLongFunction<S> v = values.get(name);
+            if (v == null) throw new AttributeNotFoundException(name);
+            return v.applyAsLong(snapshot());
+        }
+
+        public AttributeList getAttributes(String[] names) {
+            S s = snapshot();
+            AttributeList list = new AttributeList();
+            for (String n : names) {
+                ToLongFunction<S> v = values.get(n);
+                if (v != null) list.add(new Attribute(n, v.applyAsLong(s)));
+            }
+            return list;
+        }
+
+        public void setAttribute(Attribute a) throws AttributeNotFoundException { throw new AttributeNotFoundException(a.getName() + " is read-only"); }
+
+        public AttributeList setAttributes(AttributeList list) { return new AttributeList(); }
+
+        public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(action));
+        }
+
+        public MBeanInfo getMBeanInfo() { return info; }
+    }
+}
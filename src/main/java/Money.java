@@ -0,0 +1,42 @@
+/**
+ * Money is held as a long count of paise (1/100 rupee) everywhere, so balances never drift. These routines replace
+ * Double.parseDouble / String.format("%.2f") for the "1234.56" text form used in the CSV files and the UI.
+ */
+final class Money {
+    private Money() { }
+
+    /** Parses "[-]digits[.d[d]]"; a third decimal digit rounds half-up and any further digits are ignored. */
+    static long parse(CharSequence s) {
+        int i = 0, n = s.length();
+        boolean neg = false;
+        if (i < n && (s.charAt(i) == '-' || s.charAt(i) == '+')) neg = s.charAt(i++) == '-';
+        long whole = 0; int wholeDigits = 0;
+        while (i < n && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            if (++wholeDigits > 16) throw new NumberFormatException("Amount too large: " + s);
+            whole = whole * 10 + (s.charAt(i++) - '0');
+        }
+        long frac = 0; int fracDigits = 0;
+        if (i < n && s.charAt(i) == '.') {
+            i++;
+            while (i < n && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                int d = s.charAt(i++) - '0';
+                if (fracDigits < 2) frac = frac * 10 + d;
+                else if (fracDigits == 2 && d >= 5) frac++;
+                fracDigits++;
+            }
+        }
+        if (i != n || wholeDigits + fracDigits == 0) throw new NumberFormatException("Not an amount: " + s);
+        if (fracDigits == 1) frac *= 10;
+        long paise = whole * 100 + frac;
+        return neg ? -paise : paise;
+    }
+
+    static String format(long paise) { return append(new StringBuilder(24), paise).toString(); }
+
+    /** Appends "[-]rupees.pp" without going through String.format. */
+    static StringBuilder append(StringBuilder sb, long paise) {
+        if (paise < 0) { sb.append('-'); paise = -paise; }
+        long frac = paise % 100;
+        return sb.append(paise / 100).append('.').append((char) ('0' + frac / 10)).append((char) ('0' + frac % 10));
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.*;
+
+/**
+ * A balanced movement of money between accounts: each leg debits or credits one account and the legs sum to
+ * zero, so fees and split payments post as one unit. {@link Bank#post} applies every leg or none and logs the
+ * legs as consecutive rows sharing the posting's id.
+ */
+final class Posting {
+    static final int MAX_LEGS = 255; // the leg count is one byte in the binary journal
+
+    static final class Leg {
+        final String accountNumber;
+        final long amount;    // paise; negative debits, positive credits
+        final String details; // null for the posting's description
+
+        Leg(String accountNumber, long amount, String details) {
+            if (amount == 0) throw new IllegalArgumentException("Leg amount must not be zero");
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.details = details;
+        }
+
+        static Leg debit(String accountNumber, long amount) { return new Leg(accountNumber, Math.negateExact(amount), null); }
+        static Leg credit(String accountNumber, long amount) { return new Leg(accountNumber, amount, null); }
+    }
+
+    final String description;
+    final List<Leg> legs;
+    final String requestKey; // idempotency key, or null
+
+    Posting(String description, List<Leg> legs) { this(description, legs, null); }
+
+    Posting(String description, List<Leg> legs, String requestKey) {
+        if (legs.size() < 2 || legs.size() > MAX_LEGS) throw new IllegalArgumentException("A posting needs 2 to " + MAX_LEGS + " legs");
+        long sum = 0;
+        for (Leg l : legs) {
+            if (l.amount == Long.MIN_VALUE) throw new IllegalArgumentException("Leg amount out of range");
+            sum = Math.addExact(sum, l.amount);
+        }
+        if (sum != 0) throw new IllegalArgumentException("Legs do not balance");
+        this.description = description;
+        this.legs = Collections.unmodifiableList(new ArrayList<>(legs));
+        this.requestKey = requestKey;
+    }
+
+    Posting withRequestKey(String key) { return new Posting(description, legs, key); }
+
+    /** The two legs of a transfer, described as the separate rows used to be. */
+    static Posting transfer(String fromAccount, String toAccount, long amount) {
+        if (amount <= 0) throw new IllegalArgumentException("Amount must be > 0");
+        return new Posting(null, Arrays.asList(
+                new Leg(fromAccount, -amount, "Transfer to " + toAccount),
+                new Leg(toAccount, amount, "Transfer from " + fromAccount)));
+    }
+}
@@ -0,0 +1,128 @@
+import javax.swing.*;
+
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+class RegisterPanel extends JPanel {
+    public RegisterPanel(AppFrame app, AsyncBank bank) {
+        setLayout(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(10, 10, 10, 10);
+        c.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel title = bigLabel("📝 Create Account");
+        c.gridx = 0; c.gridy = 0; c.gridwidth = 2; add(title, c);
+
+        c.gridwidth = 1;
+        JLabel lUser = new JLabel("👤 Username (4-16 letters/numbers)");
+        lUser.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfUser = new JTextField(16);
+        tfUser.setToolTipText("Enter a unique username (4-16 alphanumeric characters)");
+        tfUser.setFont(BankAppGUI.BODY_FONT);
+        JLabel lName = new JLabel("👨 Full Name");
+        lName.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfName = new JTextField(20);
+        tfName.setToolTipText("Enter your full name");
+        tfName.setFont(BankAppGUI.BODY_FONT);
+        JLabel lPass = new JLabel("🔒 Password (min 6)");
+        lPass.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField pfPass = new JPasswordField(16);
+        pfPass.setToolTipText("Enter a password with at least 6 characters");
+        pfPass.setFont(BankAppGUI.BODY_FONT);
+        JLabel lCPass = new JLabel("🔒 Confirm Password");
+        lCPass.setFont(BankAppGUI.BODY_FONT);
+        JPasswordField pfCPass = new JPasswordField(16);
+        pfCPass.setToolTipText("Re-enter your password to confirm");
+        pfCPass.setFont(BankAppGUI.BODY_FONT);
+        JLabel lOpen = new JLabel("💰 Opening Deposit (optional)");
+        lOpen.setFont(BankAppGUI.BODY_FONT);
+        JTextField tfOpen = new JTextField(10);
+        tfOpen.setToolTipText("Enter an optional opening deposit amount");
+        tfOpen.setFont(BankAppGUI.BODY_FONT);
+        JButton btnCreate = new JButton("✅ Create Account");
+        btnCreate.setToolTipText("Create your new account");
+        btnCreate.setFont(BankAppGUI.BODY_FONT);
+        JButton btnBack = new JButton("⬅️ Back to Login");
+        btnBack.setToolTipText("Return to the login screen");
+        btnBack.setFont(BankAppGUI.BODY_FONT);
+
+        int r = 1;
+        c.gridy = r; c.gridx = 0; add(lUser, c); c.gridx = 1; add(tfUser, c);
+        r++; c.gridy = r; c.gridx = 0; add(lName, c); c.gridx = 1; add(tfName, c);
+        r++; c.gridy = r; c.gridx = 0; add(lPass, c); c.gridx = 1; add(pfPass, c);
+        r++; c.gridy = r; c.gridx = 0; add(lCPass, c); c.gridx = 1; add(pfCPass, c);
+        r++; c.gridy = r; c.gridx = 0; add(lOpen, c); c.gridx = 1; add(tfOpen, c);
+        r++; c.gridy = r; c.gridx = 0; add(btnCreate, c); c.gridx = 1; add(btnBack, c);
+
+        // Add hover effects
+        addHoverEffect(btnCreate);
+        addHoverEffect(btnBack);
+
+        btnBack.addActionListener(e -> app.showLogin());
+        btnCreate.addActionListener((ActionEvent e) -> {
+            String u = tfUser.getText().trim();
+            String name = tfName.getText().trim();
+            String p1 = new String(pfPass.getPassword());
+            String p2 = new String(pfCPass.getPassword());
+            String open = tfOpen.getText().trim();
+            long opening = 0;
+            if (!open.isEmpty()) {
+                try { opening = Money.parse(open); if (opening < 0) throw new NumberFormatException(); }
+                catch (NumberFormatException ex) { warn("Enter a valid non-negative amount."); return; }
+            }
+            if (!Validators.username(u)) { warn("Invalid username format."); return; }
+            if (name.isEmpty()) { warn("Full name required."); return; }
+            if (!Validators.password(p1)) { warn("Password too weak (min 6)."); return; }
+            if (!p1.equals(p2)) { warn("Passwords do not match."); return; }
+            create(app, bank, btnCreate, u, name, p1, opening, Ids.newTransactionId());
+        });
+    }
+
+    /** A failure that is not a refusal can be retried under the same idempotency key, without opening two accounts. */
+    private void create(AppFrame app, AsyncBank bank, JButton btnCreate, String u, String name, String password, long opening, String key) {
+        btnCreate.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        AsyncBank.onEdt(bank.createAccount(u, name, password, opening, key), acc -> {
+            btnCreate.setEnabled(true);
+            setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(this, "Account created! Account No: " + acc.getAccountNumber());
+            app.showLogin();
+        }, ex -> {
+            btnCreate.setEnabled(true);
+            setCursor(Cursor.getDefaultCursor());
+            if (ex instanceof Bank.UsernameTakenException) warn(ex.getMessage());
+            else if (AsyncBank.isRefusal(ex)) error(ex.getMessage());
+            else if (retry(ex)) create(app, bank, btnCreate, u, name, password, opening, key);
+        });
+    }
+
+    private boolean retry(Throwable ex) {
+        return JOptionPane.showConfirmDialog(this, ex.getMessage() + "\nTry again?", "Error", JOptionPane.YES_NO_OPTION,
+                JOptionPane.ERROR_MESSAGE) == JOptionPane.YES_OPTION;
+    }
+
+    private void warn(String m) { JOptionPane.showMessageDialog(this, m, "Warning", JOptionPane.WARNING_MESSAGE); }
+    private void error(String m) { JOptionPane.showMessageDialog(this, m, "Error", JOptionPane.ERROR_MESSAGE); }
+    private JLabel bigLabel(String t) { JLabel l = new JLabel(t, SwingConstants.CENTER); l.setFont(BankAppGUI.HEADER_FONT); l.setForeground(BankAppGUI.PRIMARY_BLUE); return l; }
+
+    private void addHoverEffect(JButton button) {
+        button.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                button.setBackground(BankAppGUI.SECONDARY_BLUE);
+                button.setForeground(Color.WHITE);
+            }
+            @Override
+            public void mouseExited(MouseEvent e) {
+                button.setBackground(UIManager.getColor("Button.background"));
+                button.setForeground(UIManager.getColor("Button.foreground"));
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recently used idempotency keys and the rows their requests wrote, so a repeat gets the original rows back.
+ * Rows carry their key's fingerprint (see {@link Ids#requestKey}) in the log, so the keys are read back from it
+ * after a restart. Keys expire after bank.idempotency.ttlMinutes, oldest first beyond bank.idempotency.maxKeys.
+ */
+class RequestKeys {
+    private static final class Entry {
+        final long key;
+        final Transaction[] rows;
+        final long position; // logical log position of the first row
+        final long expires;  // epoch millis
+
+        Entry(long key, Transaction[] rows, long position, long expires) {
+            this.key = key; this.rows = rows; this.position = position; this.expires = expires;
+        }
+    }
+
+    private final long ttlMillis = TimeUnit.MINUTES.toMillis(Long.getLong("bank.idempotency.ttlMinutes", 60));
+    private final int maxKeys = Math.max(1, Integer.getInteger("bank.idempotency.maxKeys", 100_000));
+    private final Map<Long, Entry> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Entry> byPosition = new ConcurrentSkipListMap<>(); // oldest first
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock trimming = new ReentrantLock();
+    private volatile boolean loaded;
+
+    boolean isLoaded() { return loaded; }
+
+    /** The next {@link #ensureLoaded} reads the keys back from the log; those remembered stay valid meanwhile. */
+    synchronized void invalidate() { loaded = false; }
+
+    /** Reads back the keyed rows written from logical position {@code from} on, skipping expired ones. */
+    synchronized void ensureLoaded(long from, DailySummaries.LogScan log) throws IOException {
+        if (loaded) return;
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        List<Transaction> rows = new ArrayList<>();
+        long[] at = new long[1];
+        log.rowsFrom(from, (pos, t) -> {
+            if (!rows.isEmpty() && (t.getRequestKey() != rows.get(0).getRequestKey() || !t.getId().equals(rows.get(0).getId()))) {
+                restore(rows, at[0], cutoff);
+                rows.clear();
+            }
+            if (t.getRequestKey() != 0) {
+                if (rows.isEmpty()) at[0] = pos;
+                rows.add(t);
+            }
+            return true;
+        });
+        if (!rows.isEmpty()) restore(rows, at[0], cutoff);
+        loaded = true;
+    }
+
+    private void restore(List<Transaction> rows, long position, long cutoff) {
+        long written = rows.get(0).getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (written > cutoff) put(new Entry(rows.get(0).getRequestKey(), rows.toArray(new Transaction[0]), position, written + ttlMillis));
+    }
+
+    /** The rows written under {@code key}, or null if it is unknown or expired. */
+    Transaction[] get(long key) {
+        Entry e = byKey.get(key);
+        return e == null || e.expires <= System.currentTimeMillis() ? null : e.rows;
+    }
+
+    /** Remembers rows just appended at consecutive positions; runs of rows with the same key form one request. */
+    void add(List<Transaction> txs, long[] positions) {
+        if (!loaded) return;
+        long expires = System.currentTimeMillis() + ttlMillis;
+        for (int i = 0, j; i < txs.size(); i = j) {
+            long key = txs.get(i).getRequestKey();
+            for (j = i + 1; j < txs.size() && key != 0 && txs.get(j).getRequestKey() == key; j++) { }
+            if (key != 0) put(new Entry(key, txs.subList(i, j).toArray(new Transaction[0]), positions[i], expires));
+        }
+    }
+
+    /** Where replay must start to find every remembered key: the oldest one's rows, or {@code end} if earlier. */
+    long from(long end) {
+        trim();
+        Map.Entry<Long, Entry> oldest = byPosition.firstEntry();
+        return oldest == null ? end : Math.min(oldest.getKey(), end);
+    }
+
+    private void put(Entry e) {
+        if (byKey.put(e.key, e) == null) size.incrementAndGet();
+        byPosition.put(e.position, e);
+        trim();
+    }
+
+    // One thread trims at a time; the others skip, as the next put or checkpoint trims again.
+    private void trim() {
+        if (!trimming.tryLock()) return;
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<Long, Entry> oldest; (oldest = byPosition.firstEntry()) != null; ) {
+                Entry e = oldest.getValue();
+                if (size.get() <= maxKeys && e.expires > now) break;
+                byPosition.remove(oldest.getKey(), e);
+                if (byKey.remove(e.key, e)) size.decrementAndGet();
+            }
+        } finally { trimming.unlock(); }
+    }
+}
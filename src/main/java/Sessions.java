@@ -0,0 +1,85 @@
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Login sessions: a random token maps to its account, so repeat authentication is a map lookup instead of a
+ * password hash. Sessions expire after bank.session.idleMinutes idle, and beyond bank.session.max the least
+ * recently used go. Lookups take no lock; expired sessions go when presented or at the next {@link #sweep}.
+ */
+class Sessions {
+    private final long idleNanos;
+    private final int max;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session> byToken = new ConcurrentHashMap<>(1024);
+    private final ReentrantLock trimming = new ReentrantLock();
+
+    private static final class Session {
+        final Account account;
+        volatile long lastUsed;
+        Session(Account account, long now) { this.account = account; this.lastUsed = now; }
+    }
+
+    Sessions() {
+        this(TimeUnit.MINUTES.toNanos(Long.getLong("bank.session.idleMinutes", 30)), Integer.getInteger("bank.session.max", 100_000));
+    }
+
+    Sessions(long idleNanos, int max) { this.idleNanos = idleNanos; this.max = max; }
+
+    String open(Account account) {
+        byte[] raw = new byte[32];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        long now = System.nanoTime();
+        byToken.put(token, new Session(account, now));
+        if (byToken.size() > max) trim(now);
+        return token;
+    }
+
+    /** The session's account, refreshing its idle timer; empty if the token is unknown or expired. */
+    Optional<Account> resume(String token) {
+        if (token == null) return Optional.empty();
+        Session s = byToken.get(token);
+        if (s == null) return Optional.empty();
+        long now = System.nanoTime();
+        if (now - s.lastUsed > idleNanos) {
+            byToken.remove(token, s);
+            return Optional.empty();
+        }
+        s.lastUsed = now;
+        return Optional.of(s.account);
+    }
+
+    void close(String token) { byToken.remove(token); }
+
+    /** Ends every session of the account, e.g. after a password change. */
+    void closeAll(Account account) { byToken.values().removeIf(s -> s.account == account); }
+
+    /** Live sessions, counting expired ones not yet swept. */
+    int size() { return byToken.size(); }
+
+    /** Drops every expired session. */
+    void sweep() {
+        long now = System.nanoTime();
+        byToken.values().removeIf(s -> now - s.lastUsed > idleNanos);
+    }
+
+    /**
+     * Over the cap: drops expired sessions, then if that is not enough the least recently used 1/64 of the cap,
+     * so the scan is paid once per that many logins rather than on each. One thread trims; the others go on.
+     */
+    private void trim(long now) {
+        if (!trimming.tryLock()) return;
+        try {
+            byToken.values().removeIf(s -> now - s.lastUsed > idleNanos);
+            int excess = byToken.size() - max;
+            if (excess <= 0) return;
+            long[] used = byToken.values().stream().mapToLong(s -> s.lastUsed).sorted().toArray();
+            if (used.length == 0) return;
+            long cutoff = used[Math.min(used.length, excess + max / 64) - 1];
+            byToken.values().removeIf(s -> s.lastUsed <= cutoff);
+        } finally { trimming.unlock(); }
+    }
+}
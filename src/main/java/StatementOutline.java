@@ -0,0 +1,10 @@
+/** Row count of a statement query and the cursor each page starts from, for fetching pages out of order. */
+final class StatementOutline {
+    final int rows;
+    final int pageSize;
+    final long[] pageCursors; // pageCursors[k] fetches rows k*pageSize onwards
+
+    StatementOutline(int rows, int pageSize, long[] pageCursors) { this.rows = rows; this.pageSize = pageSize; this.pageCursors = pageCursors; }
+
+    int pages() { return pageCursors.length; }
+}
@@ -0,0 +1,11 @@
+import java.util.*;
+
+/** One page of a statement query. */
+final class StatementPage {
+    final List<Transaction> rows;
+    final long next; // cursor for the following page, or -1 when this is the last
+
+    StatementPage(List<Transaction> rows, long next) { this.rows = rows; this.next = next; }
+
+    boolean hasMore() { return next >= 0; }
+}
@@ -0,0 +1,38 @@
+import java.time.*;
+import java.util.*;
+
+/** Filter for {@link Bank#queryStatement}: one account's rows, optionally limited by date, type and amount. */
+final class StatementQuery {
+    final String accountNumber;
+    final LocalDate from, to;        // inclusive; null is open
+    final Set<TxType> types;         // empty means every type
+    final long minAmount, maxAmount; // paise, inclusive
+
+    StatementQuery(String accountNumber, LocalDate from, LocalDate to, Set<TxType> types, long minAmount, long maxAmount) {
+        if (from != null && to != null && from.isAfter(to)) throw new IllegalArgumentException("From date is after to date");
+        if (minAmount > maxAmount) throw new IllegalArgumentException("Minimum amount is above maximum");
+        this.accountNumber = accountNumber;
+        this.from = from;
+        this.to = to;
+        this.types = types.isEmpty() ? EnumSet.noneOf(TxType.class) : EnumSet.copyOf(types);
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+    }
+
+    static StatementQuery all(String accountNumber) {
+        return new StatementQuery(accountNumber, null, null, EnumSet.noneOf(TxType.class), 0, Long.MAX_VALUE);
+    }
+
+    LocalDateTime start() { return from == null ? null : from.atStartOfDay(); }
+    LocalDateTime end() { return to == null ? null : to.plusDays(1).atStartOfDay(); } // exclusive
+
+    /** True when the query is the whole statement, so rows need not be read to know they match. */
+    boolean matchesAll() { return from == null && to == null && types.isEmpty() && minAmount == 0 && maxAmount == Long.MAX_VALUE; }
+
+    boolean matches(Transaction t) {
+        if (!types.isEmpty() && !types.contains(t.getType())) return false;
+        if (t.getAmount() < minAmount || t.getAmount() > maxAmount) return false;
+        LocalDate day = t.getTimestamp().toLocalDate();
+        return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+}
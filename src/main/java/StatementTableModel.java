@@ -0,0 +1,119 @@
+import javax.swing.table.AbstractTableModel;
+
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Statement rows for the Statements table, fetched a page at a time as they are painted rather than all up front.
+ * Pages are located through a {@link StatementOutline}, so scrolling to any row costs one page query; the most
+ * recently painted pages are cached (-Dbank.statement.cachePages, default 16) and cells are formatted on demand.
+ * Only one page is fetched at a time, newest request first, so a fast scroll skips the pages it passed over.
+ */
+class StatementTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 200;
+    private static final String[] COLUMNS = {"Time", "Type", "Amount", "Balance", "Related", "Details"};
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_WANTED = 8;
+
+    private final AsyncBank bank;
+    private final Consumer<String> onError;
+    private final int cachePages = Math.max(2, Integer.getInteger("bank.statement.cachePages", 16));
+    private final Map<Integer, List<Transaction>> pages = new LinkedHashMap<Integer, List<Transaction>>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) { return size() > cachePages; }
+    };
+    private final ArrayDeque<Integer> wanted = new ArrayDeque<>(); // painted but not cached, newest last
+
+    private List<Transaction> fixed = Collections.emptyList(); // rows shown as a whole, when there is no query
+    private StatementQuery query;
+    private StatementOutline outline;
+    private int generation; // bumped whenever the rows change, to drop pages fetched for earlier ones
+    private boolean loading, failed;
+
+    StatementTableModel(AsyncBank bank, Consumer<String> onError) { this.bank = bank; this.onError = onError; }
+
+    void showRows(List<Transaction> rows) {
+        reset();
+        fixed = rows;
+        fireTableDataChanged();
+    }
+
+    void showQuery(StatementQuery q, StatementOutline o) {
+        reset();
+        query = q;
+        outline = o;
+        fireTableDataChanged();
+    }
+
+    private void reset() {
+        generation++;
+        pages.clear();
+        wanted.clear();
+        fixed = null;
+        query = null;
+        outline = null;
+        failed = false;
+    }
+
+    @Override public int getRowCount() { return fixed != null ? fixed.size() : outline.rows; }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int c) { return COLUMNS[c]; }
+
+    @Override
+    public Object getValueAt(int r, int c) {
+        Transaction t = rowAt(r);
+        if (t == null) return c == 0 ? "…" : "";
+        switch (c) {
+            case 0: return t.getTimestamp().format(TIME);
+            case 1: return t.getType().name();
+            case 2: return Money.format(t.getAmount());
+            case 3: return Money.format(t.getBalanceAfter());
+            case 4: return t.getRelatedAccount() == null ? "" : t.getRelatedAccount();
+            default: return t.getDetails();
+        }
+    }
+
+    private Transaction rowAt(int r) {
+        if (fixed != null) return fixed.get(r);
+        int page = r / outline.pageSize;
+        List<Transaction> rows = pages.get(page);
+        if (rows == null) {
+            if (!failed) want(page);
+            return null;
+        }
+        int i = r % outline.pageSize;
+        return i < rows.size() ? rows.get(i) : null;
+    }
+
+    private void want(int page) {
+        wanted.remove(page);
+        wanted.addLast(page);
+        if (wanted.size() > MAX_WANTED) wanted.removeFirst();
+        if (!loading) loadNext();
+    }
+
+    private void loadNext() {
+        Integer page = wanted.pollLast();
+        if (page == null) return;
+        loading = true;
+        int gen = generation;
+        StatementOutline o = outline;
+        AsyncBank.onEdt(bank.queryStatement(query, o.pageCursors[page], o.pageSize), p -> {
+            loading = false;
+            if (gen == generation) {
+                pages.put(page, p.rows);
+                int first = page * o.pageSize;
+                fireTableRowsUpdated(first, Math.min(o.rows, first + o.pageSize) - 1);
+            }
+            loadNext();
+        }, ex -> {
+            loading = false;
+            if (gen == generation) {
+                failed = true; // until the next statement is shown, rather than retrying on every repaint
+                wanted.clear();
+                onError.accept(ex.getMessage());
+            }
+            loadNext();
+        });
+    }
+}
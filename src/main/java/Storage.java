@@ -0,0 +1,111 @@
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Persistence behind {@link Bank}: account records, the transaction log and what is derived from it.
+ * {@link FileStorage} keeps them in bank_data files; {@link MemoryStorage} on the heap. Implementations are safe
+ * for concurrent use. Log positions are opaque longs that only grow.
+ */
+interface Storage {
+    /** The engine named by bank.storage over bank.dataDir; see {@link #open}. */
+    static Storage fromConfig() {
+        return open(engine(), Paths.get(System.getProperty("bank.dataDir", "bank_data")));
+    }
+
+    /** bank.storage, csv by default. */
+    static String engine() {
+        return System.getProperty("bank.storage", "csv").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * csv or binary: {@link FileStorage} in {@code dataDir} with that transaction log layout. memory:
+     * {@link MemoryStorage}, snapshotting to {@code dataDir} if bank.memory.snapshot is true, else nothing on disk.
+     */
+    static Storage open(String engine, Path dataDir) {
+        switch (engine) {
+            case "csv": case "binary": return new FileStorage(dataDir, engine);
+            case "memory": return new MemoryStorage(Boolean.getBoolean("bank.memory.snapshot") ? dataDir : null);
+            default: throw new IllegalArgumentException("Unknown storage engine: " + engine + " (expected csv, binary or memory)");
+        }
+    }
+
+    /** A number no account has had. */
+    String newAccountNumber();
+
+    /** Creates whatever must exist before {@link #loadAccounts}. */
+    void ensureFiles();
+
+    /** Builds the per-account index of the log now rather than on the first statement or append. */
+    void openTransactionIndex();
+
+    /** Repairs the end of the log after a crash and returns where replay starts: the first row not yet in the account records. */
+    long recoverJournal();
+
+    /** Passes every log row from {@code offset} on to {@code action}, in log order; returns how many there were. */
+    long replayJournal(long offset, Consumer<Transaction> action);
+
+    /** Offset just past the last row written to the log so far. */
+    long journalEnd();
+
+    /**
+     * Saves the given account records and daily summaries, then records that replay may start at
+     * {@code journalOffset}. The caller guarantees they include every row before that offset.
+     */
+    void checkpoint(List<Account> accounts, List<DailySummary> days, long journalOffset);
+
+    /** Moves the account's daily summaries changed since the last call into {@code into}, for a checkpoint. */
+    void takeDailySummaryChanges(String accountNumber, List<DailySummary> into);
+
+    /** Hands back summaries taken for a checkpoint that failed. */
+    void restoreDailySummaryChanges(List<DailySummary> taken);
+
+    /** The account's daily summaries from {@code from} through {@code to} (null bounds are open), oldest first. */
+    List<DailySummary> loadDailySummaries(String accountNumber, LocalDate from, LocalDate to);
+
+    /** The balance at the start of {@code day} according to the daily summaries; null if the account has no rows. */
+    Long balanceAtStartOf(String accountNumber, LocalDate day);
+
+    /** The rows written by the request with this {@link Ids#requestKey} fingerprint, or null if none is remembered. */
+    Transaction[] findRequest(long key);
+
+    default List<Account> loadAccounts() { return loadAccounts(f -> { }); }
+
+    /** Every account record; {@code progress} gets the fraction loaded, possibly from other threads. */
+    List<Account> loadAccounts(DoubleConsumer progress);
+
+    /** Notes how long this start took, so cold-start regressions show up over time. */
+    void appendStartupTime(int accounts, long bootstrapMillis, long loginReadyMillis);
+
+    /** Replaces every account record. */
+    void saveAccounts(List<Account> accounts);
+
+    /** Saves one account's record right away; fails with IllegalArgumentException if it is too long to store. */
+    void saveAccount(Account a);
+
+    default void appendTransaction(Transaction t) { appendTransactions(Collections.singletonList(t)); }
+
+    /** Appends the rows contiguously, in order, as one write. */
+    void appendTransactions(List<Transaction> txs);
+
+    /** How the log is doing, for diagnostics. */
+    String transactionLogStats();
+
+    void close();
+
+    default List<Transaction> loadTransactionsFor(String accountNumber) { return loadTransactionsFor(accountNumber, null, null); }
+
+    /** The account's rows with timestamps in [from, to), null bounds being open, oldest first. */
+    List<Transaction> loadTransactionsFor(String accountNumber, LocalDateTime from, LocalDateTime to);
+
+    /** The account's last {@code n} rows, oldest first. */
+    List<Transaction> loadRecentTransactionsFor(String accountNumber, int n);
+
+    /** Up to {@code limit} of the account's rows matching {@code q} after log position {@code after} (-1 for the first page). */
+    StatementPage queryTransactions(StatementQuery q, long after, int limit);
+
+    /** Counts the rows matching {@code q} and notes the cursor each page of {@code pageSize} starts from. */
+    StatementOutline outlineTransactions(StatementQuery q, int pageSize);
+}
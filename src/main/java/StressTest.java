@@ -0,0 +1,98 @@
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.*;
+
+/**
+ * Headless concurrency check: {@code java BankAppGUI --stress [transfers] [accounts]}.
+ * Fires random transfers between accounts from one thread per core against a throw-away data directory, then
+ * verifies that the total money is unchanged in memory and after reloading from disk, and that every account's
+ * newest log row carries its current balance. Runs on the engine bank.storage selects; the memory engine
+ * snapshots to the directory so the reload still goes through disk.
+ */
+class StressTest {
+    private static Storage open(String engine, Path dir) {
+        return engine.equals("memory") ? new MemoryStorage(dir) : Storage.open(engine, dir);
+    }
+
+    static int run(String[] args) throws Exception {
+        long transfers = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000L;
+        int accountCount = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path dir = Files.createTempDirectory("bank-stress");
+        String engine = Storage.engine();
+        try {
+            Bank bank = new Bank(open(engine, dir));
+            bank.bootstrap();
+            bank.startCheckpoints();
+            Account[] accounts = new Account[accountCount];
+            for (int i = 0; i < accountCount; i++) accounts[i] = bank.createAccount("stress" + i, "Stress " + i, "secret1", 100_000);
+            long before = totalPaise(bank.accounts());
+            System.out.printf("%d accounts, total %s, %d transfers on %d threads%n", accountCount, Money.format(before), transfers, threads);
+
+            LongAdder ok = new LongAdder(), rejected = new LongAdder();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> jobs = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                long share = transfers / threads + (t < transfers % threads ? 1 : 0);
+                jobs.add(pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    for (long i = 0; i < share; i++) {
+                        int from = rnd.nextInt(accountCount), to = rnd.nextInt(accountCount - 1);
+                        if (to >= from) to++;
+                        try {
+                            bank.transfer(accounts[from], accounts[to].getUsername(), 1 + rnd.nextInt(5000));
+                            ok.increment();
+                        } catch (IllegalStateException insufficient) {
+                            rejected.increment();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : jobs) f.get();
+            pool.shutdown();
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.US, "%d transfers (%d rejected for funds) in %.1f s = %.0f/s%n",
+                    ok.sum(), rejected.sum(), secs, (ok.sum() + rejected.sum()) / secs);
+
+            boolean pass = check("in-memory total", before, totalPaise(bank.accounts()));
+            for (Account a : accounts) {
+                List<Transaction> last = bank.getMiniStatement(a.getAccountNumber(), 1);
+                if (last.isEmpty() || last.get(0).getBalanceAfter() != a.getBalance()) {
+                    System.out.println("FAIL: log out of step with balance for " + a.getAccountNumber());
+                    pass = false;
+                    break;
+                }
+            }
+            bank.close();
+
+            Bank reloaded = new Bank(open(engine, dir));
+            reloaded.bootstrap();
+            pass &= check("reloaded total", before, totalPaise(reloaded.accounts()));
+            reloaded.close();
+            System.out.println(pass ? "PASS" : "FAIL");
+            return pass ? 0 : 1;
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+            }
+        }
+    }
+
+    private static boolean check(String what, long expected, long actual) {
+        boolean same = expected == actual;
+        System.out.println((same ? "ok:   " : "FAIL: ") + what + " " + Money.format(actual) + (same ? "" : " (expected " + Money.format(expected) + ")"));
+        return same;
+    }
+
+    private static long totalPaise(Collection<Account> accounts) {
+        long sum = 0;
+        for (Account a : accounts) sum += a.getBalance();
+        return sum;
+    }
+}
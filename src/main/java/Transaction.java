@@ -0,0 +1,52 @@
+import java.time.*;
+
+class Transaction {
+    private final String id;
+    private final LocalDateTime timestamp;
+    private final String accountNumber;
+    private final TxType type;
+    private final long amount;       // paise
+    private final long balanceAfter; // paise
+    private final String details;
+    private final String relatedAccount;
+    private final int legs;          // legs of the posting this row is one of (all sharing its id), 0 for a row of its own
+    private final long requestKey;   // Ids.requestKey of the request that wrote it, 0 for none
+
+    public Transaction(String id, LocalDateTime timestamp, String accountNumber, TxType type,
+                       long amount, long balanceAfter, String details, String relatedAccount) {
+        this(id, timestamp, accountNumber, type, amount, balanceAfter, details, relatedAccount, 0);
+    }
+
+    public Transaction(String id, LocalDateTime timestamp, String accountNumber, TxType type,
+                       long amount, long balanceAfter, String details, String relatedAccount, int legs) {
+        this(id, timestamp, accountNumber, type, amount, balanceAfter, details, relatedAccount, legs, 0);
+    }
+
+    public Transaction(String id, LocalDateTime timestamp, String accountNumber, TxType type, long amount,
+                       long balanceAfter, String details, String relatedAccount, int legs, long requestKey) {
+        this.id = id; this.timestamp = timestamp; this.accountNumber = accountNumber; this.type = type;
+        this.amount = amount; this.balanceAfter = balanceAfter; this.details = details; this.relatedAccount = relatedAccount;
+        this.legs = legs; this.requestKey = requestKey;
+    }
+
+    public String getId() { return id; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getAccountNumber() { return accountNumber; }
+    public TxType getType() { return type; }
+    public long getAmount() { return amount; }
+    public long getBalanceAfter() { return balanceAfter; }
+    public String getDetails() { return details; }
+    public String getRelatedAccount() { return relatedAccount; }
+    public int getLegs() { return legs; }
+    public long getRequestKey() { return requestKey; }
+
+    Transaction withRequestKey(long key) {
+        return new Transaction(id, timestamp, accountNumber, type, amount, balanceAfter, details, relatedAccount, legs, key);
+    }
+
+    public static Transaction deposit(String accNo, long amt, long bal) { return new Transaction(Ids.newTransactionId(), LocalDateTime.now(), accNo, TxType.DEPOSIT, amt, bal, "Cash/Online Deposit", ""); }
+    public static Transaction withdraw(String accNo, long amt, long bal) { return new Transaction(Ids.newTransactionId(), LocalDateTime.now(), accNo, TxType.WITHDRAWAL, amt, bal, "Cash Withdrawal", ""); }
+    public static Transaction transferOut(String accNo, long amt, long bal, String toAcc) { return new Transaction(Ids.newTransactionId(), LocalDateTime.now(), accNo, TxType.TRANSFER_OUT, amt, bal, "Transfer to "+toAcc, toAcc); }
+    public static Transaction transferIn(String accNo, long amt, long bal, String fromAcc) { return new Transaction(Ids.newTransactionId(), LocalDateTime.now(), accNo, TxType.TRANSFER_IN, amt, bal, "Transfer from "+fromAcc, fromAcc); }
+    public static Transaction interest(String accNo, long amt, long bal, long days) { return new Transaction(Ids.newTransactionId(), LocalDateTime.now(), accNo, TxType.INTEREST, amt, bal, "Interest for "+days+" day(s)", ""); }
+}
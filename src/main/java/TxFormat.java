@@ -0,0 +1,66 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * On-disk layout of the transaction log. Storage, the index and the log writer only deal in encoded rows and
+ * their byte offsets; the layout itself is either {@link CsvTxFormat} or {@link BinaryTxFormat}.
+ */
+interface TxFormat extends Closeable {
+    Path file();
+
+    /** Written when the log file is created. */
+    byte[] header();
+
+    /** One encoded row, ready to append. */
+    byte[] encode(Transaction t) throws IOException;
+
+    /** Reports every row after the one at {@code covered} (after the header when covered < 0), in log order. */
+    void scan(long covered, RowSink sink) throws IOException;
+
+    /** Decodes every row in log order. */
+    void forEach(Consumer<Transaction> action) throws IOException;
+
+    /**
+     * Decodes the rows starting in [{@code from}, {@code to}), in log order, until the sink returns false;
+     * {@code from} is the start of a row.
+     */
+    void forEachBetween(long from, long to, DecodedSink sink) throws IOException;
+
+    /**
+     * Decodes the rows of {@code accountNumber} (every row when null) from a whole log file, header included,
+     * read as a stream, e.g. an archived segment. Stops early when the sink returns false.
+     */
+    void scanArchive(InputStream in, String accountNumber, DecodedSink sink) throws IOException;
+
+    /** Length of the file up to the end of its last complete row; shorter than the file after a torn append. */
+    long completeLength() throws IOException;
+
+    Reader openReader() throws IOException;
+
+    @Override default void close() throws IOException { }
+
+    interface RowSink { void row(long accountNumber, long offset) throws IOException; }
+
+    /** Receives a decoded row and its byte position (in the file, unless stated otherwise); false stops the scan. */
+    interface DecodedSink { boolean row(long offset, Transaction t) throws IOException; }
+
+    interface Reader extends Closeable {
+        /** The row at {@code offset}, or null if it does not belong to {@code accountNumber}. */
+        Transaction read(long offset, String accountNumber) throws IOException;
+    }
+
+    static TxFormat inDataDir(Path dataDir, String journal) {
+        switch (journal.trim().toLowerCase(Locale.ROOT)) {
+            case "csv": return new CsvTxFormat(dataDir.resolve("transactions.csv"));
+            case "binary": return new BinaryTxFormat(dataDir.resolve("transactions.bin"));
+            default: throw new IllegalArgumentException("Unknown journal format: " + journal + " (expected csv or binary)");
+        }
+    }
+
+    /** Picks the format from the file name: *.bin is the binary journal, anything else CSV. */
+    static TxFormat forFile(Path file) {
+        return file.getFileName().toString().endsWith(".bin") ? new BinaryTxFormat(file) : new CsvTxFormat(file);
+    }
+}
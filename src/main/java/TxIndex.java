@@ -0,0 +1,169 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Secondary index over the transaction log: account number -> byte offsets of that account's rows, in log order.
+ * Persisted next to the log (transactions.idx / transactions.bin.idx) as 16-byte entries (account number as
+ * a long, row offset), appended alongside every transaction row.
+ */
+class TxIndex {
+    private static final int ENTRY_LEN = 16;
+
+    private final Path indexFile;
+    private final TxFormat log;
+    // Account number (as a long) -> offsets, open addressing: a rebuild inserts once per log row, so no boxing.
+    private long[] keys = new long[1024];
+    private Offsets[] values = new Offsets[1024];
+    private int size;
+    private FileChannel out;
+    private boolean loaded;
+
+    TxIndex(Path indexFile, TxFormat log) { this.indexFile = indexFile; this.log = log; }
+
+    /** Reads the index file and catches up with the log, once; every lookup and append calls this first. */
+    synchronized void ensureLoaded() throws IOException { if (!loaded) load(); }
+
+    private void load() throws IOException {
+        clear();
+        if (out != null) out.close();
+        long logSize = Files.size(log.file());
+        long covered = -1; // highest row offset present in the index
+        if (Files.exists(indexFile)) {
+            long whole = Files.size(indexFile) / ENTRY_LEN * ENTRY_LEN;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 1 << 16))) {
+                for (long i = 0; i < whole; i += ENTRY_LEN) {
+                    long acc = in.readLong();
+                    long off = in.readLong();
+                    if (off >= logSize) { covered = Long.MAX_VALUE; break; }
+                    put(acc, off);
+                    covered = Math.max(covered, off);
+                }
+            }
+            if (covered == Long.MAX_VALUE) { clear(); covered = -1; whole = 0; } // log was replaced: rebuild
+            try (FileChannel ch = FileChannel.open(indexFile, StandardOpenOption.WRITE)) { ch.truncate(whole); }
+        }
+        out = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        catchUp(covered);
+        loaded = true;
+    }
+
+    /** Indexes every row that starts after the row at {@code covered} (or after the header when nothing is indexed). */
+    private void catchUp(long covered) throws IOException {
+        ByteBuffer pending = ByteBuffer.allocate(ENTRY_LEN * 4096);
+        log.scan(covered, (acc, offset) -> {
+            put(acc, offset);
+            pending.putLong(acc).putLong(offset);
+            if (!pending.hasRemaining()) flush(pending);
+        });
+        flush(pending);
+    }
+
+    private void flush(ByteBuffer pending) throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) out.write(pending);
+        pending.clear();
+    }
+
+    synchronized void addAll(String[] accountNumbers, long[] offsets) throws IOException {
+        ensureLoaded();
+        ByteBuffer e = ByteBuffer.allocate(ENTRY_LEN * offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            long acc = Long.parseLong(accountNumbers[i]);
+            put(acc, offsets[i]);
+            e.putLong(acc).putLong(offsets[i]);
+        }
+        flush(e);
+    }
+
+    synchronized long[] offsetsFor(String accountNumber) throws IOException {
+        ensureLoaded();
+        Offsets o = get(accountNumber);
+        return o == null ? new long[0] : Arrays.copyOf(o.a, o.n);
+    }
+
+    /** Offsets of the account's newest {@code n} rows, in log order. */
+    synchronized long[] lastOffsetsFor(String accountNumber, int n) throws IOException {
+        ensureLoaded();
+        Offsets o = get(accountNumber);
+        if (o == null || n <= 0) return new long[0];
+        int from = Math.max(0, o.n - n);
+        return Arrays.copyOfRange(o.a, from, o.n);
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) { out.close(); out = null; }
+        loaded = false;
+    }
+
+    /** Closes the index and removes its file, for a log that has been replaced; the next use rebuilds it. */
+    synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexFile);
+    }
+
+    private Offsets get(String accountNumber) {
+        long key;
+        try { key = Long.parseLong(accountNumber); }
+        catch (NumberFormatException e) { return null; }
+        for (int i = slot(key); values[i] != null; i = (i + 1) & (keys.length - 1)) {
+            if (keys[i] == key) return values[i];
+        }
+        return null;
+    }
+
+    private void put(long key, long offset) {
+        int i = slot(key);
+        while (values[i] != null && keys[i] != key) i = (i + 1) & (keys.length - 1);
+        if (values[i] == null) {
+            keys[i] = key;
+            values[i] = new Offsets();
+            if (++size * 2 > keys.length) { grow(); i = find(key); }
+        }
+        values[i].add(offset);
+    }
+
+    private int find(long key) {
+        int i = slot(key);
+        while (keys[i] != key || values[i] == null) i = (i + 1) & (keys.length - 1);
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys; Offsets[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Offsets[oldKeys.length * 2];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != null) i = (i + 1) & (keys.length - 1);
+            keys[i] = oldKeys[j]; values[i] = oldValues[j];
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+
+    /** Growable sorted long list; rows nearly always arrive in offset order, so inserts land at the end. */
+    private static final class Offsets {
+        long[] a = new long[4];
+        int n;
+
+        void add(long off) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            int i = n;
+            while (i > 0 && a[i - 1] > off) { a[i] = a[i - 1]; i--; }
+            a[i] = off;
+            n++;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Long-lived append channel for the transaction log. Callers block until their rows are written; one writer
+ * thread drains everything queued meanwhile into a single write (group commit), then syncs per the
+ * {@link Durability} policy (bank.txlog.durability, see README).
+ */
+class TxLogWriter implements Closeable {
+    enum Durability { COMMIT, INTERVAL, OS }
+
+    interface BatchListener { void onBatch(int rows, long bytes, long latencyNanos); }
+
+    private static final class Request {
+        final byte[][] rows;
+        final long[] offsets;
+        boolean done;
+        IOException error;
+        Request(byte[][] rows) { this.rows = rows; this.offsets = new long[rows.length]; }
+    }
+
+    private final FileChannel ch;
+    private final Durability durability;
+    private final long syncIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private final Thread writer;
+    private List<Request> queue = new ArrayList<>();
+    private boolean closed;
+    private volatile BatchListener listener;
+
+    // writer thread only
+    private long end;
+    private boolean dirty;
+    private long lastSync = System.nanoTime();
+    private IOException fenced; // a failed batch could not be rolled back, so the end of the file is unknown
+
+    // written by the writer thread, read by anyone
+    private volatile long committedEnd; // 'end' as of the last completed batch
+    private volatile long batches, rowCount, byteCount, totalNanos, maxNanos, lastNanos;
+
+    TxLogWriter(Path file, Durability durability, long syncMillis) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.end = ch.size();
+        this.committedEnd = end;
+        this.durability = durability;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncMillis);
+        this.writer = new Thread(this::run, "txlog-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    static TxLogWriter open(Path file) throws IOException {
+        Durability d = Durability.valueOf(System.getProperty("bank.txlog.durability", "os").trim().toUpperCase(Locale.ROOT));
+        long syncMillis = Long.getLong("bank.txlog.syncMillis", 50L);
+        TxLogWriter w = new TxLogWriter(file, d, syncMillis);
+        if (Boolean.getBoolean("bank.txlog.trace")) {
+            w.setBatchListener((rows, bytes, nanos) ->
+                    System.err.printf(Locale.US, "txlog batch: %d rows, %d bytes, %.1f us%n", rows, bytes, nanos / 1000.0));
+        }
+        return w;
+    }
+
+    void setBatchListener(BatchListener l) { this.listener = l; }
+
+    /** File offset just past the last row written; every append that has returned lies before it. */
+    long end() { return committedEnd; }
+
+    /** Syncs everything written so far, whatever the durability policy. */
+    void force() throws IOException { ch.force(false); }
+
+    /**
+     * Appends the rows contiguously and returns the file offset of each, once its batch is written (and synced if
+     * required). If it throws, the rows are not in the log: a failed batch is cut off again before anyone is told.
+     */
+    long[] append(byte[]... rows) throws IOException {
+        Request r = new Request(rows);
+        lock.lock();
+        try {
+            if (closed) throw new IOException("Transaction log is closed");
+            queue.add(r);
+            work.signal();
+            while (!r.done) written.awaitUninterruptibly();
+        } finally { lock.unlock(); }
+        if (r.error != null) throw r.error;
+        return r.offsets;
+    }
+
+    String stats() {
+        long b = batches;
+        if (b == 0) return "idle";
+        return String.format(Locale.US, "%s: %d batches, %d rows (%.1f rows/batch), %d bytes, batch latency avg %.1f us / max %.1f us / last %.1f us",
+                durability.name().toLowerCase(Locale.ROOT), b, rowCount, rowCount / (double) b, byteCount,
+                totalNanos / 1000.0 / b, maxNanos / 1000.0, lastNanos / 1000.0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try { closed = true; work.signal(); }
+        finally { lock.unlock(); }
+        try { writer.join(); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed && !syncDue()) awaitWork();
+                if (queue.isEmpty() && closed) break;
+                List<Request> t = queue; queue = batch; batch = t;
+            } finally { lock.unlock(); }
+            try {
+                if (batch.isEmpty()) trySync(); // interval tick
+                else commit(batch);
+            } catch (Throwable t) {
+                fail(batch, t);
+            }
+            batch.clear();
+        }
+        try {
+            if (dirty && durability != Durability.OS) ch.force(false);
+            ch.close();
+        } catch (IOException ignored) { }
+    }
+
+    private boolean syncDue() {
+        return dirty && durability == Durability.INTERVAL && System.nanoTime() - lastSync >= syncIntervalNanos;
+    }
+
+    private void awaitWork() {
+        if (dirty && durability == Durability.INTERVAL) {
+            try { work.awaitNanos(lastSync + syncIntervalNanos - System.nanoTime()); }
+            catch (InterruptedException ignored) { }
+        } else {
+            work.awaitUninterruptibly();
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        long start = System.nanoTime();
+        int n = 0;
+        for (Request r : batch) n += r.rows.length;
+        ByteBuffer[] bufs = new ByteBuffer[n];
+        long bytes = 0; int k = 0;
+        for (Request r : batch) {
+            for (int i = 0; i < r.rows.length; i++) {
+                r.offsets[i] = end + bytes;
+                bufs[k++] = ByteBuffer.wrap(r.rows[i]);
+                bytes += r.rows[i].length;
+            }
+        }
+        IOException error = fenced;
+        if (error == null) {
+            try {
+                for (long left = bytes; left > 0; ) left -= ch.write(bufs);
+                dirty = true;
+                if (durability == Durability.COMMIT) sync();
+                end += bytes;
+                committedEnd = end;
+                Metrics.bytesWritten.add(bytes);
+            } catch (IOException e) {
+                error = e;
+                rollBack(e);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        batches++; rowCount += n; byteCount += bytes; totalNanos += nanos; lastNanos = nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+
+        lock.lock();
+        try {
+            for (Request r : batch) { r.error = error; r.done = true; }
+            written.signalAll();
+        } finally { lock.unlock(); }
+        BatchListener l = listener;
+        if (l != null) l.onBatch(n, bytes, nanos);
+    }
+
+    /**
+     * Something other than an I/O error broke a batch, possibly after part of it was written. The end of the file
+     * is unknown, so the writer is fenced like after a failed roll-back, and whoever is still waiting is told.
+     */
+    private void fail(List<Request> batch, Throwable cause) {
+        if (fenced == null) {
+            fenced = new IOException("Transaction log writer failed: " + cause, cause);
+            Metrics.log.log(Level.SEVERE, "Transaction log writer failed; refusing further appends", cause);
+        }
+        lock.lock();
+        try {
+            for (Request r : batch) {
+                if (!r.done) { r.error = fenced; r.done = true; }
+            }
+            written.signalAll();
+        } finally { lock.unlock(); }
+    }
+
+    /**
+     * Cuts the file back to the last committed batch, so the next one does not land after a torn row. If that
+     * fails too, every later append fails rather than write after it.
+     */
+    private void rollBack(IOException cause) {
+        try {
+            ch.truncate(end);
+            if (durability == Durability.COMMIT) ch.force(true);
+        } catch (IOException e) {
+            fenced = new IOException("Transaction log unusable after a failed write: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void trySync() {
+        try { sync(); } catch (IOException ignored) { } // retried on the next tick or commit
+    }
+
+    private void sync() throws IOException {
+        ch.force(false);
+        dirty = false;
+        lastSync = System.nanoTime();
+    }
+}
@@ -0,0 +1,6 @@
+enum TxType {
+    DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, INTEREST;
+
+    /** Whether a row of this type adds its amount to the balance (otherwise it takes it away). */
+    boolean isCredit() { return this == DEPOSIT || this == TRANSFER_IN || this == INTEREST; }
+}
@@ -0,0 +1,4 @@
+class Validators {
+    public static boolean username(String u) { return u != null && u.matches("[A-Za-z0-9]{4,16}"); }
+    public static boolean password(String p) { return p != null && p.length() >= 6; }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BankConcurrencyTest {
+    @TempDir Path dir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary", "memory"})
+    void stressTestPasses(String engine) throws Exception {
+        String old = System.setProperty("bank.storage", engine);
+        try {
+            assertEquals(0, StressTest.run(new String[] {"--stress", "20000", "50"}));
+        } finally {
+            if (old == null) System.clearProperty("bank.storage");
+            else System.setProperty("bank.storage", old);
+        }
+    }
+
+    @Test
+    void concurrentTransfersConserveMoneyInMemoryAndAfterReload() throws Exception {
+        Bank bank = new Bank(new FileStorage(dir, "csv"));
+        bank.bootstrap();
+        int count = 20;
+        Account[] accounts = new Account[count];
+        for (int i = 0; i < count; i++) accounts[i] = bank.createAccount("user" + i, "User " + i, "secret1", 10_000);
+        long before = total(bank);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> jobs = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            jobs.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    int from = rnd.nextInt(count), to = (from + 1 + rnd.nextInt(count - 1)) % count;
+                    try { bank.transfer(accounts[from], accounts[to].getUsername(), 1 + rnd.nextInt(3_000)); }
+                    catch (IllegalStateException insufficient) { }
+                }
+            }));
+        }
+        for (Future<?> f : jobs) f.get();
+        pool.shutdown();
+
+        assertEquals(before, total(bank));
+        for (Account a : accounts) {
+            assertEquals(a.getBalance(), bank.getMiniStatement(a.getAccountNumber(), 1).get(0).getBalanceAfter());
+        }
+        bank.close();
+
+        Bank reloaded = new Bank(new FileStorage(dir, "csv"));
+        reloaded.bootstrap();
+        assertEquals(before, total(reloaded));
+        reloaded.close();
+    }
+
+    private static long total(Bank bank) {
+        long sum = 0;
+        for (Account a : bank.accounts()) sum += a.getBalance();
+        return sum;
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryTxFormatTest {
+    @TempDir Path dir;
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+
+    private static List<Transaction> sample(int n) {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String acc = String.valueOf(1_000_000 + i % 97), other = String.valueOf(2_000_000 + i % 89);
+            LocalDateTime ts = T0.plusSeconds(i).plusNanos(i);
+            switch (i % 5) {
+                case 0: rows.add(new Transaction(Ids.newTransactionId(), ts, acc, TxType.DEPOSIT, 100 + i, 10_000 + i, "Cash/Online Deposit", "")); break;
+                case 1: rows.add(new Transaction(Ids.newTransactionId(), ts, acc, TxType.INTEREST, 1 + i, 10_000 + i, "Interest for " + (i % 31) + " day(s)", "")); break;
+                case 2: rows.add(new Transaction(Ids.newTransactionId(), ts, acc, TxType.TRANSFER_OUT, 7, 9_000, "Transfer to " + other, other, 2, 0xABCDEFL + i)); break;
+                case 3: rows.add(new Transaction(String.valueOf(i), ts, acc, TxType.WITHDRAWAL, 5, 8_000, "Rent, \"flat\" " + other + " and " + other, other)); break;
+                default: rows.add(new Transaction("legacy-" + i, ts, acc, TxType.TRANSFER_IN, 3, 7_000, "", "")); break;
+            }
+        }
+        return rows;
+    }
+
+    private static String describe(Transaction t) {
+        return String.join("|", t.getId(), t.getTimestamp().toString(), t.getAccountNumber(), t.getType().name(),
+                Long.toString(t.getAmount()), Long.toString(t.getBalanceAfter()), t.getDetails(), t.getRelatedAccount(),
+                Integer.toString(t.getLegs()), Long.toString(t.getRequestKey()));
+    }
+
+    private static void write(TxFormat format, List<Transaction> rows) throws IOException {
+        try (OutputStream out = Files.newOutputStream(format.file())) {
+            out.write(format.header());
+            for (Transaction t : rows) out.write(format.encode(t));
+        } finally { format.close(); }
+    }
+
+    private static List<String> read(TxFormat format) throws IOException {
+        List<String> out = new ArrayList<>();
+        try { format.forEach(t -> out.add(describe(t))); }
+        finally { format.close(); }
+        return out;
+    }
+
+    @Test
+    void recordsRoundTripThroughAFreshReader() throws IOException {
+        List<Transaction> rows = sample(1_000);
+        Path file = dir.resolve("transactions.bin");
+        write(new BinaryTxFormat(file), rows);
+
+        assertEquals(BinaryTxFormat.RECORD_LEN * (rows.size() + 1L), Files.size(file));
+        List<String> expected = new ArrayList<>();
+        for (Transaction t : rows) expected.add(describe(t));
+        assertEquals(expected, read(new BinaryTxFormat(file)));
+    }
+
+    @Test
+    void detailsDictionaryDoesNotGrowWithAccountsOrNumbers() throws IOException {
+        Path file = dir.resolve("transactions.bin");
+        List<Transaction> rows = sample(5_000);
+        rows.removeIf(t -> t.getId().startsWith("legacy-")); // text ids are dictionary entries of their own
+        write(new BinaryTxFormat(file), rows);
+        long bytes = Files.size(file.resolveSibling("transactions.bin.dict"));
+        assertTrue(bytes < 256, bytes + " dictionary bytes");
+    }
+
+    @Test
+    void converterRoundTripsCsvThroughBinary() throws IOException {
+        Path csv = dir.resolve("transactions.csv"), bin = dir.resolve("copy.bin"), back = dir.resolve("back.csv");
+        write(new CsvTxFormat(csv), sample(500));
+
+        assertEquals(0, JournalConverter.run(new String[] {"--convert-journal", csv.toString(), bin.toString()}));
+        assertEquals(0, JournalConverter.run(new String[] {"--convert-journal", bin.toString(), back.toString()}));
+        assertArrayEquals(Files.readAllBytes(csv), Files.readAllBytes(back));
+        assertEquals(read(new CsvTxFormat(csv)), read(new BinaryTxFormat(bin)));
+        assertTrue(Files.size(bin) < Files.size(csv));
+    }
+
+    @Test
+    void converterRefusesToOverwrite() throws IOException {
+        Path csv = dir.resolve("transactions.csv"), bin = Files.createFile(dir.resolve("exists.bin"));
+        write(new CsvTxFormat(csv), sample(3));
+        assertEquals(1, JournalConverter.run(new String[] {"--convert-journal", csv.toString(), bin.toString()}));
+        assertEquals(0, Files.size(bin));
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class CsvTokenizerTest {
+    private static CsvTokenizer over(String text) {
+        return new CsvTokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    /** Hands out a few bytes per read, so rows straddle refills of the window. */
+    private static InputStream trickle(String text) {
+        return new FilterInputStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))) {
+            @Override public int read(byte[] b, int off, int len) throws IOException { return super.read(b, off, Math.min(len, 7)); }
+        };
+    }
+
+    @Test
+    void splitsQuotedFieldsAndUnescapesQuotes() throws IOException {
+        CsvTokenizer row = over("a,\"b,c\",\"say \"\"hi\"\"\",,\"multi\nline\"\n");
+        assertTrue(row.next());
+        assertEquals(5, row.fieldCount());
+        assertEquals("a", row.field(0));
+        assertEquals("b,c", row.field(1));
+        assertEquals("say \"hi\"", row.field(2));
+        assertTrue(row.fieldEmpty(3));
+        assertEquals("multi\nline", row.field(4));
+        assertFalse(row.next());
+    }
+
+    @Test
+    void roundTripsCsvEscape() throws IOException {
+        String[] values = {"plain", "with,comma", "with \"quotes\"", "new\nline", ""};
+        StringBuilder line = new StringBuilder();
+        for (String v : values) line.append(line.length() == 0 ? "" : ",").append(CSV.escape(v));
+        CsvTokenizer row = over(line + "\n");
+        assertTrue(row.next());
+        for (int i = 0; i < values.length; i++) assertEquals(values[i], row.field(i));
+    }
+
+    @Test
+    void trimsPaddingAndCarriageReturnsAndReportsOffsets() throws IOException {
+        String first = "1001,alice   \r\n", blank = "\n";
+        CsvTokenizer row = over(first + blank + "1002,bob");
+        assertTrue(row.next());
+        assertEquals(0, row.rowOffset());
+        assertEquals("alice", row.field(1));
+        assertTrue(row.next());
+        assertEquals(0, row.fieldCount());
+        assertTrue(row.next());
+        assertEquals(first.length() + blank.length(), row.rowOffset());
+        assertEquals("bob", row.field(1));
+        assertFalse(row.next());
+    }
+
+    @Test
+    void rowsSurviveRefillsAndOutgrowTheWindow() throws IOException {
+        String wide = "x".repeat(200_000);
+        CsvTokenizer row = new CsvTokenizer(trickle("a,\"q,1\"\n" + wide + ",end\nlast,row\n"), 100);
+        assertTrue(row.next());
+        assertEquals("q,1", row.field(1));
+        assertTrue(row.next());
+        assertEquals(108, row.rowOffset());
+        assertEquals(wide, row.field(0));
+        assertEquals("end", row.field(1));
+        assertTrue(row.next());
+        assertEquals("row", row.field(1));
+        assertFalse(row.next());
+    }
+
+    @Test
+    void parsesFieldsInPlace() throws IOException {
+        CsvTokenizer row = over("1234567890,1234.56,2024-02-29,2024-02-29T13:45:07.123456789,2024-02-29T13:45,TRANSFER_OUT\n");
+        assertTrue(row.next());
+        assertTrue(row.fieldEquals(0, "1234567890"));
+        assertFalse(row.fieldEquals(0, "123456789"));
+        assertEquals(1234567890L, row.fieldLong(0));
+        assertEquals(123456, row.fieldMoney(1));
+        assertEquals(LocalDate.of(2024, 2, 29), row.fieldDate(2));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 13, 45, 7, 123456789), row.fieldDateTime(3));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 13, 45), row.fieldDateTime(4));
+        assertEquals(TxType.TRANSFER_OUT, row.fieldEnum(5, TxType.values()));
+        assertThrows(NumberFormatException.class, () -> row.fieldLong(1));
+    }
+
+    @Test
+    void tokenizesSingleRowsInPlace() {
+        byte[] a = "xx,7,yy,zz".getBytes(StandardCharsets.US_ASCII);
+        CsvTokenizer row = new CsvTokenizer().row(a, 3, 7);
+        assertEquals(2, row.fieldCount());
+        assertEquals(7, row.fieldLong(0));
+        assertEquals("yy", row.field(1));
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IdempotencyTest {
+    @TempDir Path dir;
+
+    private Bank open() {
+        Bank bank = new Bank(new FileStorage(dir, "csv"));
+        bank.bootstrap();
+        return bank;
+    }
+
+    @Test
+    void aRepeatedRequestReturnsTheOriginalRowsWithoutPostingAgain() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 0);
+
+        Transaction deposit = bank.deposit(a, 500, "k1");
+        assertEquals(deposit.getId(), bank.deposit(a, 500, "k1").getId());
+        Transaction withdrawal = bank.withdraw(a, 200, "k2");
+        assertEquals(withdrawal.getId(), bank.withdraw(a, 200, "k2").getId());
+        Transaction transfer = bank.transfer(a, "bob", 300, "k3");
+        assertEquals(transfer.getId(), bank.transfer(a, "bob", 300, "k3").getId());
+        List<Transaction> posted = bank.post(Posting.transfer(b.getAccountNumber(), a.getAccountNumber(), 100).withRequestKey("k4"));
+        assertEquals(posted.get(0).getId(), bank.post(Posting.transfer(b.getAccountNumber(), a.getAccountNumber(), 100).withRequestKey("k4")).get(0).getId());
+
+        assertEquals(10_000 + 500 - 200 - 300 + 100, a.getBalance());
+        assertEquals(300 - 100, b.getBalance());
+        assertEquals(5, bank.getFullStatement(a.getAccountNumber()).size());
+        bank.close();
+    }
+
+    @Test
+    void keysAreScopedToTheAccountAndBindTheOperation() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 10_000);
+        bank.deposit(a, 500, "same");
+        bank.deposit(b, 500, "same");
+        assertEquals(10_500, b.getBalance());
+
+        assertThrows(IllegalStateException.class, () -> bank.deposit(a, 501, "same"));
+        assertThrows(IllegalStateException.class, () -> bank.withdraw(a, 500, "same"));
+        assertEquals(10_500, a.getBalance());
+
+        bank.deposit(a, 500, "other"); // an identical action under a new key is a new action
+        assertEquals(11_000, a.getBalance());
+        bank.close();
+    }
+
+    @Test
+    void keysSurviveARestart() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000);
+        String id = bank.deposit(a, 500, "k1").getId();
+        bank.close();
+
+        Bank reopened = open();
+        Account again = reopened.findByAccountNumber(a.getAccountNumber());
+        assertEquals(id, reopened.deposit(again, 500, "k1").getId());
+        assertEquals(10_500, again.getBalance());
+        reopened.close();
+    }
+
+    @Test
+    void openingAnAccountCanBeRetriedUnderItsKey() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000, "open-1");
+        assertSame(a, bank.createAccount("alice", "Alice", "secret1", 10_000, "open-1"));
+        assertEquals(10_000, a.getBalance());
+
+        assertThrows(Bank.UsernameTakenException.class, () -> bank.createAccount("alice", "Alice", "secret1", 10_000, "open-2"));
+        assertThrows(Bank.UsernameTakenException.class, () -> bank.createAccount("alice", "Alice", "wrong-password", 10_000, "open-1"));
+        assertThrows(Bank.UsernameTakenException.class, () -> bank.createAccount("alice", "Alice", "secret1", 10_000));
+        assertEquals(10_000, a.getBalance());
+        bank.close();
+    }
+
+    @Test
+    void passwordChangesAndInterestCanBeRetriedUnderTheirKeys() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 1_000_000);
+        bank.changePassword(a, "secret2", "pw-1");
+        String token = bank.openSession("alice", "secret2").get();
+        bank.changePassword(a, "secret2", "pw-1");
+        assertTrue(bank.resumeSession(token).isPresent(), "a repeat leaves newer sessions alone");
+
+        a.setLastInterestApplied(LocalDate.now().minusDays(30));
+        long interest = bank.applyInterest(a, "int-1");
+        long balance = a.getBalance();
+        assertTrue(interest > 0);
+        assertEquals(interest, bank.applyInterest(a, "int-1"));
+        assertEquals(balance, a.getBalance());
+        bank.close();
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LogSegmentTest {
+    @TempDir Path dir;
+
+    @BeforeEach void rollEarly() { System.setProperty("bank.segment.maxBytes", "2000"); }
+
+    @AfterEach void restore() { System.clearProperty("bank.segment.maxBytes"); }
+
+    private Bank open(String engine) {
+        Bank bank = new Bank(new FileStorage(dir, engine));
+        bank.bootstrap();
+        return bank;
+    }
+
+    private List<Path> segments(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("segments"))) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /** Every row once, in order, with balances that add up to the account's. */
+    private static void assertStatementComplete(Bank bank, Account a, int rows) {
+        List<Transaction> all = bank.getFullStatement(a.getAccountNumber());
+        assertEquals(rows, all.size());
+        Set<String> ids = new HashSet<>();
+        long balance = 0;
+        for (Transaction t : all) {
+            assertTrue(ids.add(t.getId()));
+            switch (t.getType()) {
+                case DEPOSIT: case TRANSFER_IN: case INTEREST: balance += t.getAmount(); break;
+                default: balance -= t.getAmount();
+            }
+            assertEquals(t.getBalanceAfter(), balance);
+        }
+        assertEquals(a.getBalance(), balance);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void rolledSegmentsKeepStatementsComplete(String engine) throws IOException {
+        Bank bank = open(engine);
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 10_000);
+        Account idle = bank.createAccount("carol", "Carol", "secret1", 0);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 20; i++) {
+                bank.deposit(a, 100);
+                bank.transfer(a, "bob", 50);
+            }
+            bank.checkpoint();
+        }
+        assertTrue(segments(".gz").size() >= 2, "segments rolled");
+        assertEquals(segments(".gz").size(), segments(".manifest").size());
+        assertStatementComplete(bank, a, 1 + 4 * 40);
+        assertStatementComplete(bank, b, 1 + 4 * 20);
+        assertTrue(bank.getFullStatement(idle.getAccountNumber()).isEmpty());
+        LocalDate today = LocalDate.now();
+        assertEquals(1 + 4 * 20, bank.getStatement(b.getAccountNumber(), today, today).size());
+        assertTrue(bank.getStatement(b.getAccountNumber(), today.minusDays(10), today.minusDays(5)).isEmpty());
+        bank.close();
+
+        Bank reopened = open(engine);
+        assertStatementComplete(reopened, reopened.findByAccountNumber(a.getAccountNumber()), 1 + 4 * 40);
+        assertStatementComplete(reopened, reopened.findByAccountNumber(b.getAccountNumber()), 1 + 4 * 20);
+        reopened.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void manifestsRecordTheSegmentsRowsAccountsAndTimeRange(String engine) throws IOException {
+        Bank bank = open(engine);
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000);
+        for (int i = 0; i < 60; i++) bank.deposit(a, 1);
+        LocalDateTime after = LocalDateTime.now();
+        bank.checkpoint();
+        bank.close();
+
+        Path gz = segments(".gz").get(0);
+        String name = gz.getFileName().toString();
+        Path manifest = gz.resolveSibling(name.substring(0, name.length() - ".gz".length()) + ".manifest");
+        LogSegment segment = LogSegment.readManifest(0, gz, manifest);
+        assertEquals(61, segment.rows);
+        assertTrue(segment.mightContain(a.getAccountNumber()));
+        assertFalse(segment.mightContain("999999999"));
+        assertTrue(segment.overlaps(segment.first, segment.last));
+        assertFalse(segment.overlaps(after.plusDays(1), after.plusDays(2)));
+    }
+}
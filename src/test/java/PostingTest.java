@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PostingTest {
+    @TempDir Path dir;
+
+    private Bank open() {
+        Bank bank = new Bank(new FileStorage(dir, "csv"));
+        bank.bootstrap();
+        return bank;
+    }
+
+    private static void assertLinked(List<Transaction> legs) {
+        for (Transaction t : legs) {
+            assertEquals(legs.get(0).getId(), t.getId());
+            assertEquals(legs.size(), t.getLegs());
+        }
+    }
+
+    @Test
+    void aTransferIsOnePostingOfTwoLinkedLegs() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 0);
+        Transaction out = bank.transfer(a, "bob", 2_500);
+        Transaction in = bank.getMiniStatement(b.getAccountNumber(), 1).get(0);
+
+        assertEquals(TxType.TRANSFER_OUT, out.getType());
+        assertEquals(TxType.TRANSFER_IN, in.getType());
+        assertLinked(Arrays.asList(out, in));
+        assertEquals(b.getAccountNumber(), out.getRelatedAccount());
+        assertEquals(a.getAccountNumber(), in.getRelatedAccount());
+        assertEquals(7_500, a.getBalance());
+        assertEquals(2_500, b.getBalance());
+        bank.close();
+    }
+
+    @Test
+    void legsArePostedTogetherOrNotAtAll() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 0);
+        Account c = bank.createAccount("carol", "Carol", "secret1", 0);
+
+        List<Transaction> rows = bank.post(new Posting("Split bill", Arrays.asList(
+                Posting.Leg.debit(a.getAccountNumber(), 3_000), Posting.Leg.credit(b.getAccountNumber(), 1_000),
+                Posting.Leg.credit(c.getAccountNumber(), 2_000))));
+        assertEquals(3, rows.size());
+        assertLinked(rows);
+
+        assertThrows(IllegalStateException.class, () -> bank.post(new Posting("Too much", Arrays.asList(
+                Posting.Leg.credit(c.getAccountNumber(), 50_000), Posting.Leg.debit(a.getAccountNumber(), 50_000)))));
+        assertThrows(IllegalArgumentException.class, () -> new Posting("Unbalanced", Arrays.asList(
+                Posting.Leg.debit(a.getAccountNumber(), 10), Posting.Leg.credit(b.getAccountNumber(), 9))));
+        assertEquals(7_000, a.getBalance());
+        assertEquals(1_000, b.getBalance());
+        assertEquals(2_000, c.getBalance());
+        assertEquals(1, bank.getFullStatement(c.getAccountNumber()).size());
+        bank.close();
+    }
+
+    @Test
+    void postAllRejectsPostingsOneByOne() {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 1_000), b = bank.createAccount("bob", "Bob", "secret1", 0);
+        String[] rejected = bank.postAll(Arrays.asList(
+                Posting.transfer(a.getAccountNumber(), b.getAccountNumber(), 600),
+                Posting.transfer(a.getAccountNumber(), b.getAccountNumber(), 600),
+                Posting.transfer(b.getAccountNumber(), a.getAccountNumber(), 100)));
+        assertNull(rejected[0]);
+        assertNotNull(rejected[1]);
+        assertNull(rejected[2]);
+        assertEquals(500, a.getBalance());
+        assertEquals(500, b.getBalance());
+        bank.close();
+    }
+
+    @Test
+    void batchTransfersAreLinkedAndAHalfWrittenOneIsDroppedOnRecovery() throws IOException {
+        Bank bank = open();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 0);
+        bank.close();
+        Path file = dir.resolve("batch.csv");
+        Files.writeString(file, "type,account,amount,toAccount,details\n"
+                + "TRANSFER," + a.getAccountNumber() + ",10.00," + b.getAccountNumber() + ",\n"
+                + "TRANSFER," + b.getAccountNumber() + ",5.00," + a.getAccountNumber() + ",rent\n");
+
+        FileStorage storage = new FileStorage(dir, "csv");
+        Bank batch = new Bank(storage);
+        batch.bootstrap();
+        BatchPoster job = new BatchPoster(batch, storage);
+        job.read(file);
+        job.post();
+        assertEquals(2, job.write());
+        List<Transaction> rows = batch.getFullStatement(b.getAccountNumber());
+        assertLinked(Arrays.asList(rows.get(0), batch.getFullStatement(a.getAccountNumber()).get(1)));
+        assertEquals("rent", rows.get(1).getDetails());
+
+        // a crash after the first leg of the second transfer reached the log, before any checkpoint
+        Path log = dir.resolve("transactions.csv");
+        List<String> lines = Files.readAllLines(log);
+        Files.write(log, lines.subList(0, lines.size() - 1));
+        Files.deleteIfExists(dir.resolve("transactions.idx"));
+
+        Bank recovered = open();
+        assertEquals(9_000, recovered.findByAccountNumber(a.getAccountNumber()).getBalance());
+        assertEquals(1_000, recovered.findByAccountNumber(b.getAccountNumber()).getBalance());
+        assertEquals(1, recovered.getFullStatement(b.getAccountNumber()).size());
+        recovered.close();
+    }
+}
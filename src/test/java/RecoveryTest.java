@@ -0,0 +1,167 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** A crash is simulated by abandoning a bank without closing it and opening a new one on the same directory. */
+class RecoveryTest {
+    @TempDir Path dir;
+
+    private Bank open(String engine) {
+        Bank bank = new Bank(new FileStorage(dir, engine));
+        bank.bootstrap();
+        return bank;
+    }
+
+    private static Account[] accounts(Bank bank, int n) {
+        Account[] accounts = new Account[n];
+        for (int i = 0; i < n; i++) accounts[i] = bank.createAccount("user" + i, "User " + i, "secret1", 50_000);
+        return accounts;
+    }
+
+    private static void churn(Bank bank, Account[] accounts, long seed) {
+        Random r = new Random(seed);
+        for (int i = 0; i < 300; i++) {
+            int from = r.nextInt(accounts.length), to = (from + 1 + r.nextInt(accounts.length - 1)) % accounts.length;
+            Account a = accounts[from], b = accounts[to];
+            try {
+                switch (i % 3) {
+                    case 0: bank.transfer(a, b.getUsername(), 1 + r.nextInt(5_000)); break;
+                    case 1: bank.withdraw(a, 1 + r.nextInt(2_000)); break;
+                    default: bank.deposit(a, 1 + r.nextInt(2_000)); break;
+                }
+            } catch (IllegalStateException insufficient) { }
+        }
+    }
+
+    private static Map<String, Long> balances(Account[] accounts) {
+        Map<String, Long> m = new HashMap<>();
+        for (Account a : accounts) m.put(a.getAccountNumber(), a.getBalance());
+        return m;
+    }
+
+    private static void assertRecovered(Map<String, Long> expected, Bank bank) {
+        for (Map.Entry<String, Long> e : expected.entrySet()) {
+            assertEquals(e.getValue().longValue(), bank.findByAccountNumber(e.getKey()).getBalance(), e.getKey());
+            List<Transaction> last = bank.getMiniStatement(e.getKey(), 1);
+            assertEquals(e.getValue().longValue(), last.get(0).getBalanceAfter(), e.getKey());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void replaysTheLogAfterACrashWithoutCheckpoint(String engine) {
+        Bank bank = open(engine);
+        Account[] accounts = accounts(bank, 10);
+        churn(bank, accounts, 1);
+        Map<String, Long> expected = balances(accounts);
+
+        Bank recovered = open(engine);
+        assertRecovered(expected, recovered);
+        recovered.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void replaysOnlyTheRowsAfterTheLastCheckpoint(String engine) {
+        Bank bank = open(engine);
+        Account[] accounts = accounts(bank, 10);
+        churn(bank, accounts, 2);
+        bank.checkpoint();
+        churn(bank, accounts, 3);
+        Map<String, Long> expected = balances(accounts);
+
+        Bank recovered = open(engine);
+        assertRecovered(expected, recovered);
+        recovered.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void dropsARowTornByTheCrash(String engine) throws IOException {
+        Bank bank = open(engine);
+        Account[] accounts = accounts(bank, 4);
+        churn(bank, accounts, 4);
+        Map<String, Long> expected = balances(accounts);
+        Path log = dir.resolve(engine.equals("csv") ? "transactions.csv" : "transactions.bin");
+        Files.write(log, "00000000-0000-0000-0000-0000000".getBytes(), StandardOpenOption.APPEND);
+
+        Bank recovered = open(engine);
+        assertRecovered(expected, recovered);
+        Account a = recovered.findByAccountNumber(accounts[0].getAccountNumber());
+        recovered.deposit(a, 100);
+        recovered.close();
+
+        Bank reopened = open(engine);
+        assertEquals(expected.get(a.getAccountNumber()) + 100, reopened.findByAccountNumber(a.getAccountNumber()).getBalance());
+        reopened.close();
+    }
+
+    @Test
+    void aFailedAppendChangesNoBalance() {
+        boolean[] fail = {false};
+        Bank bank = new Bank(new MemoryStorage(null) {
+            @Override public void appendTransactions(List<Transaction> txs) {
+                if (fail[0]) throw new IllegalStateException("disk full");
+                super.appendTransactions(txs);
+            }
+        });
+        bank.bootstrap();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 10_000);
+        fail[0] = true;
+        assertThrows(RuntimeException.class, () -> bank.deposit(a, 5));
+        assertThrows(RuntimeException.class, () -> bank.withdraw(a, 5));
+        assertThrows(RuntimeException.class, () -> bank.transfer(a, "bob", 5));
+        assertThrows(RuntimeException.class, () -> bank.post(Posting.transfer(a.getAccountNumber(), b.getAccountNumber(), 5)));
+        assertEquals(10_000, a.getBalance());
+        assertEquals(10_000, b.getBalance());
+
+        fail[0] = false;
+        bank.transfer(a, "bob", 5);
+        assertEquals(9_995, a.getBalance());
+        assertEquals(10_005, b.getBalance());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"csv", "binary"})
+    void aRowLoggedButNotIndexedStillCounts(String engine) {
+        boolean[] fail = {false};
+        Bank bank = new Bank(new FileStorage(dir, engine) {
+            @Override void track(List<Transaction> txs, String[] accounts, long[] offsets) throws IOException {
+                if (fail[0]) throw new IOException("index disk full");
+                super.track(txs, accounts, offsets);
+            }
+        });
+        bank.bootstrap();
+        Account a = bank.createAccount("alice", "Alice", "secret1", 10_000), b = bank.createAccount("bob", "Bob", "secret1", 10_000);
+        bank.deposit(a, 100, "k1");
+        fail[0] = true;
+        bank.transfer(a, "bob", 500, "k2");
+        fail[0] = false;
+
+        assertEquals(9_600, a.getBalance());
+        assertEquals(10_500, b.getBalance());
+        assertEquals(9_600, bank.getMiniStatement(a.getAccountNumber(), 1).get(0).getBalanceAfter());
+        assertEquals(3, bank.getFullStatement(a.getAccountNumber()).size());
+        assertEquals(bank.getMiniStatement(a.getAccountNumber(), 1).get(0).getId(), bank.transfer(a, "bob", 500, "k2").getId());
+        assertEquals(9_600, a.getBalance());
+        bank.close();
+
+        Bank reopened = open(engine);
+        assertEquals(9_600, reopened.findByAccountNumber(a.getAccountNumber()).getBalance());
+        assertEquals(10_500, reopened.findByAccountNumber(b.getAccountNumber()).getBalance());
+        reopened.close();
+    }
+}
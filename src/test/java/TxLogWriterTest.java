@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class TxLogWriterTest {
+    @TempDir Path dir;
+
+    @ParameterizedTest
+    @EnumSource(TxLogWriter.Durability.class)
+    void concurrentAppendsAreGroupedAndAllLand(TxLogWriter.Durability durability) throws Exception {
+        Path file = Files.createFile(dir.resolve("log"));
+        TxLogWriter w = new TxLogWriter(file, durability, 5);
+        AtomicInteger batches = new AtomicInteger(), batchedRows = new AtomicInteger();
+        AtomicLong batchedBytes = new AtomicLong();
+        w.setBatchListener((rows, bytes, nanos) -> {
+            batches.incrementAndGet();
+            batchedRows.addAndGet(rows);
+            batchedBytes.addAndGet(bytes);
+        });
+
+        int threads = 8, perThread = 500;
+        byte[][] rows = new byte[threads * perThread][];
+        long[] offsets = new long[rows.length];
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Future<?>[] jobs = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            jobs[t] = pool.submit(() -> {
+                go.await();
+                for (int i = first; i < first + perThread; i++) {
+                    rows[i] = ("row " + i + "\n").getBytes(StandardCharsets.US_ASCII);
+                    offsets[i] = w.append(rows[i])[0];
+                }
+                return null;
+            });
+        }
+        go.countDown();
+        for (Future<?> f : jobs) f.get();
+        pool.shutdown();
+        long end = w.end();
+        w.close();
+
+        byte[] content = Files.readAllBytes(file);
+        assertEquals(content.length, end);
+        assertEquals(content.length, batchedBytes.get());
+        assertEquals(rows.length, batchedRows.get());
+        assertTrue(batches.get() <= rows.length);
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < rows.length; i++) {
+            assertTrue(distinct.add(offsets[i]));
+            int at = (int) offsets[i];
+            assertArrayEquals(rows[i], Arrays.copyOfRange(content, at, at + rows[i].length));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TxLogWriter.Durability.class)
+    void rowsOfOneAppendAreContiguous(TxLogWriter.Durability durability) throws Exception {
+        Path file = Files.createFile(dir.resolve("log"));
+        try (TxLogWriter w = new TxLogWriter(file, durability, 5)) {
+            byte[] a = "first\n".getBytes(StandardCharsets.US_ASCII), b = "second\n".getBytes(StandardCharsets.US_ASCII);
+            long[] at = w.append(a, b);
+            assertEquals(0, at[0]);
+            assertEquals(a.length, at[1]);
+            assertEquals(a.length + b.length, w.end());
+        }
+        assertEquals("first\nsecond\n", Files.readString(file));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TxLogWriter.Durability.class)
+    void appendAfterCloseFails(TxLogWriter.Durability durability) throws Exception {
+        TxLogWriter w = new TxLogWriter(Files.createFile(dir.resolve("log")), durability, 5);
+        w.close();
+        assertThrows(IOException.class, () -> w.append(new byte[] {'x', '\n'}));
+    }
+
+    @ParameterizedTest
+    @EnumSource(TxLogWriter.Durability.class)
+    void aBrokenBatchFencesTheWriterInsteadOfHangingAppends(TxLogWriter.Durability durability) throws Exception {
+        TxLogWriter w = new TxLogWriter(Files.createFile(dir.resolve("log")), durability, 5);
+        w.setBatchListener((rows, bytes, nanos) -> { throw new IllegalStateException("listener bug"); });
+        w.append(new byte[] {'a', '\n'}); // written before the listener runs
+
+        IOException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IOException.class, () -> w.append(new byte[] {'b', '\n'})));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        w.close();
+        assertEquals("a\n", Files.readString(dir.resolve("log")));
+    }
+}